@@ -1,6 +1,7 @@
 package com.example.studentsmanaged;
 
 import com.example.studentsmanaged.controllers.StudentController;
+import com.example.studentsmanaged.database.DatabaseConnection;
 import com.example.studentsmanaged.util.ThreadUtil;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -55,6 +56,8 @@ public class StudentsManagedApp extends Application {
         if (controller != null) {
             controller.cleanup();
         }
+        // Release pooled database connections
+        DatabaseConnection.shutdownIfOpen();
         // Shutdown all thread pools
         ThreadUtil.shutdownAll();
         Platform.exit();
@@ -2,6 +2,9 @@ package com.example.studentsmanaged.controllers;
 
 
 import com.example.studentsmanaged.models.Student;
+import com.example.studentsmanaged.service.ImportMode;
+import com.example.studentsmanaged.service.StudentChangeEvent;
+import com.example.studentsmanaged.service.StudentChangeListener;
 import com.example.studentsmanaged.service.StudentService;
 import com.example.studentsmanaged.util.StudentManagementException;
 import com.example.studentsmanaged.util.ThreadUtil;
@@ -20,7 +23,11 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.FileChooser;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 
 public class StudentController {
@@ -56,10 +63,22 @@ public class StudentController {
     @FXML
     private TableColumn<Student, Double> colGrade;
 
+    // Rows fetched per page when loading the table
+    private static final int PAGE_SIZE = 500;
+
     private final StudentService studentService;
     private final ObservableList<Student> studentList;
     private final ExecutorService executorService;
 
+    // Position of each student's row in studentList, so change events find rows by ID
+    // without scanning the table; FX thread only
+    private final Map<String, Integer> rowIndex = new HashMap<>();
+
+    // IDs deleted while pages are still loading, so a page read before the delete cannot
+    // bring the row back; null when no load is running. FX thread only.
+    private Set<String> deletedDuringLoad;
+    private final StudentChangeListener changeListener = this::onStudentsChanged;
+
     // Constructor
     public StudentController() {
         this.studentService = new StudentService();
@@ -78,6 +97,9 @@ public class StudentController {
         // Set item list for table
         tableStudents.setItems(studentList);
 
+        // Keep the table in step with committed changes, including imports
+        studentService.addChangeListener(changeListener);
+
         // Load students from database
         loadStudents();
 
@@ -104,27 +126,109 @@ public class StudentController {
         btnImport.setOnAction(e -> importFromCSV());
     }
 
-    // Load students from database
+    // Load students from database one keyset page at a time so the table fills progressively
     private void loadStudents() {
-        Task<List<Student>> task = new Task<>() {
+        studentList.clear();
+        rowIndex.clear();
+        Set<String> deleted = new HashSet<>();
+        deletedDuringLoad = deleted;
+
+        Task<Integer> task = new Task<>() {
             @Override
-            protected List<Student> call() {
-                return studentService.getAllStudents();
+            protected Integer call() throws StudentManagementException {
+                String afterId = null;
+                int loaded = 0;
+                List<Student> page;
+
+                do {
+                    page = studentService.getStudentsPage(afterId, PAGE_SIZE);
+                    if (!page.isEmpty()) {
+                        afterId = page.get(page.size() - 1).getId();
+                        loaded += page.size();
+                        List<Student> rows = page;
+                        ThreadUtil.runOnFXThread(() -> appendPage(rows));
+                    }
+                } while (page.size() == PAGE_SIZE && !isCancelled());
+
+                return loaded;
             }
         };
 
-        task.setOnSucceeded(e -> {
-            studentList.clear();
-            studentList.addAll(task.getValue());
-        });
-
+        // Pages are handed to the FX thread before the task finishes, so these run after the
+        // last one; a newer load keeps its own set
+        task.setOnSucceeded(e -> endLoad(deleted));
+        task.setOnCancelled(e -> endLoad(deleted));
         task.setOnFailed(e -> {
+            endLoad(deleted);
             showAlert(javafx.scene.control.Alert.AlertType.ERROR, "Error", "Failed to load students", task.getException().getMessage());
         });
 
         executorService.submit(task);
     }
 
+    private void endLoad(Set<String> deleted) {
+        if (deletedDuringLoad == deleted) {
+            deletedDuringLoad = null;
+        }
+    }
+
+    // Add a loaded page, skipping students a change event already put in the table or
+    // deleted since the load started
+    private void appendPage(List<Student> page) {
+        for (Student student : page) {
+            String id = student.getId();
+            if (!rowIndex.containsKey(id) && (deletedDuringLoad == null || !deletedDuringLoad.contains(id))) {
+                addRow(student);
+            }
+        }
+    }
+
+    // Called on the writer's thread; hand the deltas to the FX thread
+    private void onStudentsChanged(List<StudentChangeEvent> events) {
+        ThreadUtil.runOnFXThread(() -> applyChanges(events));
+    }
+
+    // Apply committed changes row by row instead of reloading the table
+    private void applyChanges(List<StudentChangeEvent> events) {
+        for (StudentChangeEvent event : events) {
+            Integer index = rowIndex.get(event.getStudentId());
+
+            if (event.getType() == StudentChangeEvent.Type.DELETED) {
+                if (index != null) {
+                    removeRow(index);
+                }
+                if (deletedDuringLoad != null) {
+                    deletedDuringLoad.add(event.getStudentId());
+                }
+                continue;
+            }
+
+            if (deletedDuringLoad != null) {
+                // Re-created, so the row the event adds is current
+                deletedDuringLoad.remove(event.getStudentId());
+            }
+            if (index != null) {
+                // Replacing the element re-renders only this row
+                studentList.set(index, event.getStudent());
+            } else {
+                addRow(event.getStudent());
+            }
+        }
+    }
+
+    private void addRow(Student student) {
+        rowIndex.put(student.getId(), studentList.size());
+        studentList.add(student);
+    }
+
+    // Removing shifts the later rows up, so their positions move with them
+    private void removeRow(int index) {
+        rowIndex.remove(studentList.remove(index).getId());
+        for (int i = index; i < studentList.size(); i++) {
+            rowIndex.put(studentList.get(i).getId(), i);
+        }
+    }
+
     // Clear form fields
     private void clearForm() {
         txtId.clear();
@@ -162,12 +266,9 @@ public class StudentController {
                 return;
             }
 
-            // Add student to database
+            // Add student to database; the change event adds it to the table
             studentService.addStudent(student);
 
-            // Add student to table
-            studentList.add(student);
-
             // Clear form
             clearForm();
 
@@ -189,26 +290,24 @@ public class StudentController {
                 return;
             }
 
-            // Validate and update student object from form fields
+            // Validate form fields into a copy so the table row only changes once the update commits
+            Student updatedStudent = new Student(selectedStudent);
             try {
                 ValidationUtil.validateName(txtName.getText().trim());
-                selectedStudent.setName(txtName.getText().trim());
+                updatedStudent.setName(txtName.getText().trim());
 
                 ValidationUtil.validateCourse(txtCourse.getText().trim());
-                selectedStudent.setCourse(txtCourse.getText().trim());
+                updatedStudent.setCourse(txtCourse.getText().trim());
 
                 double grade = ValidationUtil.validateGrade(txtGrade.getText().trim());
-                selectedStudent.setGrade(grade);
+                updatedStudent.setGrade(grade);
             } catch (StudentManagementException e) {
                 showAlert(javafx.scene.control.Alert.AlertType.ERROR, "Validation Error", "Invalid Input", e.getMessage());
                 return;
             }
 
-            // Update student in database
-            studentService.updateStudent(selectedStudent);
-
-            // Refresh table
-            tableStudents.refresh();
+            // Update student in database; the change event replaces the table row
+            studentService.updateStudent(updatedStudent);
 
             // Clear form
             clearForm();
@@ -231,12 +330,9 @@ public class StudentController {
                 return;
             }
 
-            // Delete student from database
+            // Delete student from database; the change event removes the table row
             studentService.deleteStudent(selectedStudent.getId());
 
-            // Remove student from table
-            studentList.remove(selectedStudent);
-
             // Clear form
             clearForm();
 
@@ -279,27 +375,15 @@ public class StudentController {
         File file = fileChooser.showOpenDialog(btnImport.getScene().getWindow());
 
         if (file != null) {
-            studentService.importFromCSVAsync(file.getAbsolutePath(), students -> {
-                javafx.application.Platform.runLater(() -> {
-                    if (students != null && !students.isEmpty()) {
-                        // Add imported students to database
-                        for (Student student : students) {
-                            try {
-                                if (studentService.getAllStudents().stream()
-                                        .noneMatch(s -> s.getId().equals(student.getId()))) {
-                                    studentService.addStudent(student);
-                                    studentList.add(student);
-                                }
-                            } catch (StudentManagementException e) {
-                                System.err.println("Error importing student: " + e.getMessage());
-                            }
-                        }
-
+            studentService.importFromCSVAsync(file.getAbsolutePath(), ImportMode.INSERT_ONLY, report -> {
+                ThreadUtil.runOnFXThread(() -> {
+                    if (report.getApplied() > 0) {
+                        // Imported rows reach the table through change events
                         showAlert(javafx.scene.control.Alert.AlertType.INFORMATION, "Success", "Import Successful",
-                                "Imported " + students.size() + " students");
+                                report.getSummary());
                     } else {
                         showAlert(javafx.scene.control.Alert.AlertType.WARNING, "Warning", "Import Result",
-                                "No students were imported");
+                                "No students were imported\n" + report.getSummary());
                     }
                 });
             });
@@ -322,6 +406,7 @@ public class StudentController {
 
     // Clean up resources
     public void cleanup() {
+        studentService.removeChangeListener(changeListener);
         studentService.shutdown();
         // No need to shutdown our executorService as it's shared with ThreadUtil
     }
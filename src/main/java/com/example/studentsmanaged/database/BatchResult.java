@@ -0,0 +1,94 @@
+package com.example.studentsmanaged.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-row outcome of a batched insert or update
+ */
+public class BatchResult {
+    private final List<RowResult> rows = new ArrayList<>();
+    private final Map<WriteStatus, Integer> counts = new EnumMap<>(WriteStatus.class);
+
+    // Record the outcome of one row
+    void add(String studentId, WriteStatus status, String message) {
+        rows.add(new RowResult(studentId, status, message));
+        counts.merge(status, 1, Integer::sum);
+    }
+
+    public List<RowResult> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    public int getCount(WriteStatus status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+    public int getInserted() {
+        return getCount(WriteStatus.INSERTED);
+    }
+
+    public int getUpdated() {
+        return getCount(WriteStatus.UPDATED);
+    }
+
+    public int getDuplicates() {
+        return getCount(WriteStatus.DUPLICATE);
+    }
+
+    public int getNotFound() {
+        return getCount(WriteStatus.NOT_FOUND);
+    }
+
+    public int getFailed() {
+        return getCount(WriteStatus.FAILED);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "rows=" + rows.size() +
+                ", counts=" + counts +
+                '}';
+    }
+
+    /**
+     * Outcome of a single row in the batch
+     */
+    public static class RowResult {
+        private final String studentId;
+        private final WriteStatus status;
+        private final String message;
+
+        public RowResult(String studentId, WriteStatus status, String message) {
+            this.studentId = studentId;
+            this.status = status;
+            this.message = message;
+        }
+
+        public String getStudentId() {
+            return studentId;
+        }
+
+        public WriteStatus getStatus() {
+            return status;
+        }
+
+        // Error detail for failed rows, otherwise null
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return studentId + ": " + status + (message != null ? " (" + message + ")" : "");
+        }
+    }
+}
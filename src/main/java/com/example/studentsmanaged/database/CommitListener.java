@@ -0,0 +1,58 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.models.Student;
+
+import java.util.List;
+
+/**
+ * Receives writes once they have committed, in commit order.
+ * Backends call it on the thread that committed the write, before the write's future
+ * completes or its batch call returns, and never from two threads at once, so a later
+ * change to an ID is always delivered after an earlier one.
+ */
+@FunctionalInterface
+public interface CommitListener {
+    // Used until a listener is set
+    CommitListener NONE = changes -> { };
+
+    /**
+     * @param changes the rows that changed, in commit order
+     */
+    void committed(List<Change> changes);
+
+    /**
+     * One committed row: INSERTED, UPDATED or DELETED
+     */
+    class Change {
+        private final WriteStatus status;
+        private final String studentId;
+        private final Student student;
+
+        public Change(WriteStatus status, String studentId, Student student) {
+            this.status = status;
+            this.studentId = studentId;
+            this.student = student;
+        }
+
+        public WriteStatus getStatus() {
+            return status;
+        }
+
+        public String getStudentId() {
+            return studentId;
+        }
+
+        // The values written, or null for deletes
+        public Student getStudent() {
+            return student;
+        }
+
+        static Change of(WriteStatus status, Student student) {
+            return new Change(status, student.getId(), student);
+        }
+
+        static Change deleted(String studentId) {
+            return new Change(WriteStatus.DELETED, studentId, null);
+        }
+    }
+}
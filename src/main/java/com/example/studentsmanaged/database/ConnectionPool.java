@@ -0,0 +1,323 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.util.LoggerUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool.
+ * Borrowed connections are proxies whose close() returns the physical connection to the pool.
+ */
+public class ConnectionPool {
+    // Seconds allowed for Connection.isValid() when validating on borrow
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String name;
+    private final String url;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final ConnectionInitializer initializer;
+    private final int statementCacheSize;
+
+    // Idle connections, most recently used first
+    private final LinkedBlockingDeque<PhysicalConnection> idleConnections;
+
+    // One permit per connection that may be handed out
+    private final Semaphore permits;
+
+    private volatile boolean closed;
+
+    // Metrics
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong totalBorrows = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    /**
+     * Create a connection pool
+     *
+     * @param name the pool name used in log messages
+     * @param url the JDBC URL
+     * @param maxSize the maximum number of connections
+     * @param idleTimeoutMillis how long an unused connection is kept before it is evicted
+     * @param borrowTimeoutMillis how long a caller waits for a free connection
+     * @param initializer configures each newly opened connection before first use
+     * @param statementCacheSize prepared statements cached per connection; 0 disables caching
+     */
+    public ConnectionPool(String name, String url, int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis,
+                          ConnectionInitializer initializer, int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.name = name;
+        this.url = url;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.initializer = initializer;
+        this.statementCacheSize = statementCacheSize;
+        this.idleConnections = new LinkedBlockingDeque<>();
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Borrow a connection from the pool, waiting up to the borrow timeout
+     *
+     * @return a pooled connection; closing it returns it to the pool
+     * @throws SQLException if the pool is closed, the wait times out or a connection cannot be opened
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool " + name + " is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a connection from pool " + name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection from pool " + name, e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PhysicalConnection physical = takeValidConnection();
+            activeCount.incrementAndGet();
+            return physical.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Reuse an idle connection if a valid one exists, otherwise open a new one
+    private PhysicalConnection takeValidConnection() throws SQLException {
+        evictExpired();
+
+        PhysicalConnection physical;
+        while ((physical = idleConnections.pollFirst()) != null) {
+            if (physical.isUsable()) {
+                return physical;
+            }
+            validationFailures.incrementAndGet();
+            physical.closeQuietly();
+        }
+
+        Connection conn = DriverManager.getConnection(url);
+        try {
+            initializer.initialize(conn);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        createdCount.incrementAndGet();
+        LoggerUtil.debug("ConnectionPool", "Opened new connection for pool " + name);
+        return new PhysicalConnection(conn);
+    }
+
+    // Return a physical connection to the idle list once its lease is closed
+    private void release(PhysicalConnection physical) {
+        activeCount.decrementAndGet();
+        try {
+            if (closed || !physical.reset()) {
+                physical.closeQuietly();
+            } else {
+                physical.lastUsed = System.currentTimeMillis();
+                idleConnections.offerFirst(physical);
+            }
+        } finally {
+            permits.release();
+        }
+        evictExpired();
+    }
+
+    // Close idle connections that have not been used within the idle timeout
+    private void evictExpired() {
+        if (idleTimeoutMillis <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        Iterator<PhysicalConnection> it = idleConnections.descendingIterator();
+        while (it.hasNext()) {
+            PhysicalConnection physical = it.next();
+            if (physical.lastUsed >= cutoff) {
+                // Everything nearer the head was used more recently
+                break;
+            }
+            if (idleConnections.removeLastOccurrence(physical)) {
+                evictedCount.incrementAndGet();
+                physical.closeQuietly();
+            }
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalBorrows.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Get a snapshot of the pool metrics
+     *
+     * @return the current pool statistics
+     */
+    public PoolStats getStats() {
+        return new PoolStats(name, maxSize, activeCount.get(), idleConnections.size(),
+                totalBorrows.get(), totalWaitNanos.get(), maxWaitNanos.get(), borrowTimeouts.get(),
+                createdCount.get(), evictedCount.get(), validationFailures.get(),
+                statementHits.get(), statementMisses.get());
+    }
+
+    /**
+     * Close the pool and every idle connection.
+     * Connections still on loan are closed when they are returned.
+     */
+    public void close() {
+        closed = true;
+        PhysicalConnection physical;
+        while ((physical = idleConnections.pollFirst()) != null) {
+            physical.closeQuietly();
+        }
+        LoggerUtil.info("ConnectionPool", "Closed pool " + name + ": " + getStats());
+    }
+
+    /**
+     * Hook run once on every physical connection the pool opens
+     */
+    @FunctionalInterface
+    public interface ConnectionInitializer {
+        void initialize(Connection conn) throws SQLException;
+    }
+
+    /**
+     * A physical connection owned by the pool
+     */
+    private class PhysicalConnection {
+        private final Connection connection;
+        private final StatementCache statementCache;
+        private volatile long lastUsed;
+
+        PhysicalConnection(Connection connection) {
+            this.connection = connection;
+            this.statementCache = new StatementCache(connection, statementCacheSize, statementHits, statementMisses);
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        // Hand out a proxy for a single borrow
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+
+        boolean isUsable() {
+            try {
+                return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        // Roll back any unfinished transaction so the next borrower starts clean
+        boolean reset() {
+            try {
+                if (connection.isClosed()) {
+                    return false;
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                connection.clearWarnings();
+                statementCache.reclaim();
+                return true;
+            } catch (SQLException e) {
+                LoggerUtil.error("ConnectionPool", "Discarding connection that could not be reset", e);
+                return false;
+            }
+        }
+
+        void closeQuietly() {
+            statementCache.closeAll();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LoggerUtil.error("ConnectionPool", "Error closing pooled connection", e);
+            }
+        }
+    }
+
+    /**
+     * Invocation handler for a borrowed connection
+     */
+    private class LeaseHandler implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private boolean returned;
+
+        LeaseHandler(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + name + "] " + physical.connection;
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to pool " + name);
+            }
+
+            // Plain prepareStatement(sql) calls are served from the statement cache
+            if ("prepareStatement".equals(method.getName()) && args.length == 1) {
+                return physical.statementCache.prepare((String) args[0]);
+            }
+
+            try {
+                return method.invoke(physical.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,50 +1,128 @@
 package com.example.studentsmanaged.database;
 
 import com.example.studentsmanaged.util.LoggerUtil;
+import com.example.studentsmanaged.util.ThreadUtil;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseConnection {
-    // Database URL
-    private static final String DB_URL = "jdbc:sqlite:students.db";
+    // Database file of the shared instance
+    private static final String DB_FILE = "students.db";
+
+    // Pool settings, overridable with -Dsms.db.pool.* system properties
+    private static final int POOL_SIZE = Integer.getInteger("sms.db.pool.size", 4);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("sms.db.pool.idleTimeoutMs", 60_000L);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("sms.db.pool.borrowTimeoutMs", 10_000L);
+
+    // Prepared statements cached per connection, overridable with -Dsms.db.statementCacheSize
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("sms.db.statementCacheSize", 32);
+
+    // Secondary indexes: course lookups by id (with grade for per-course ranges),
+    // per-course statistics ordered by name, grade ranges across all courses,
+    // and name prefix searches
+    private static final String[] INDEXES = {
+            "CREATE INDEX IF NOT EXISTS idx_students_course_id_grade ON students (course_id, grade)",
+            "CREATE INDEX IF NOT EXISTS idx_students_course_grade ON students (course, grade)",
+            "CREATE INDEX IF NOT EXISTS idx_students_grade ON students (grade)",
+            "CREATE INDEX IF NOT EXISTS idx_students_name ON students (name)"
+    };
 
     // Singleton instance
     private static DatabaseConnection instance;
 
+    // Database file this instance opens
+    private final String file;
+
+    // Storage tuning applied to every connection
+    private final StorageProfile profile;
+
+    // Read-only connections for queries
+    private final ConnectionPool readPool;
+
+    // The single connection used for writes, held by one borrower at a time
+    private final ConnectionPool writePool;
+
+    // Single writer that group-commits all mutations on the DB executor
+    private final GroupCommitWriter writer;
+
+    // Writer thread owned by this instance, or null when it uses the shared DB executor
+    private final ExecutorService ownedExecutor;
+
     // Get singleton instance
-    public static DatabaseConnection getInstance() {
+    public static synchronized DatabaseConnection getInstance() {
         if (instance == null) {
-            instance = new DatabaseConnection();
+            instance = new DatabaseConnection(DB_FILE, ThreadUtil.getDatabaseExecutor(), null);
         }
         return instance;
     }
 
-    // Private constructor for singleton pattern
-    private DatabaseConnection() {
-        LoggerUtil.info("DatabaseConnection", "Initializing database connection");
+    // Open a separate database file, such as a shard, with its own pools and writer thread
+    // so its writes do not wait on any other file. The caller must shut it down.
+    public static DatabaseConnection open(String file) {
+        ExecutorService executor = ThreadUtil.newNamedExecutor("DB-Worker-" + file, 1);
+        return new DatabaseConnection(file, executor, executor);
+    }
+
+    // Shut down the singleton if it was ever created, without opening the database
+    public static synchronized void shutdownIfOpen() {
+        if (instance != null) {
+            instance.shutdown();
+        }
+    }
+
+    // Private constructor; use getInstance() or open()
+    private DatabaseConnection(String file, ExecutorService writeExecutor, ExecutorService ownedExecutor) {
+        this.file = file;
+        this.profile = StorageProfile.fromSystemProperties();
+        this.ownedExecutor = ownedExecutor;
+        LoggerUtil.info("DatabaseConnection", "Initializing database " + file + " with storage profile " + profile
+                + " (" + POOL_SIZE + " readers, 1 writer)");
+        String url = "jdbc:sqlite:" + file;
+        String poolName = DB_FILE.equals(file) ? "students" : file;
+        // The writer is created first so the journal mode is set before any reader opens the file
+        this.writePool = new ConnectionPool(poolName + "-write", url, 1, 0L, POOL_BORROW_TIMEOUT_MS,
+                profile::applyToWriter, STATEMENT_CACHE_SIZE);
+        this.readPool = new ConnectionPool(poolName + "-read", url, POOL_SIZE, POOL_IDLE_TIMEOUT_MS,
+                POOL_BORROW_TIMEOUT_MS, profile::applyToReader, STATEMENT_CACHE_SIZE);
+        this.writer = new GroupCommitWriter(this, writeExecutor);
         initializeDatabase();
     }
 
     // Initialize database and create tables if they don't exist
     private void initializeDatabase() {
         LoggerUtil.info("DatabaseConnection", "Creating/checking database tables");
-        try (Connection conn = getConnection();
+        try (Connection conn = getWriteConnection();
              Statement stmt = conn.createStatement()) {
 
+            // Each distinct course name is stored once and referenced by id
+            stmt.execute("CREATE TABLE IF NOT EXISTS courses (" +
+                    "id INTEGER PRIMARY KEY," +
+                    "name TEXT NOT NULL UNIQUE" +
+                    ");");
+
             // Create students table if it doesn't exist
             String sql = "CREATE TABLE IF NOT EXISTS students (" +
                     "id TEXT PRIMARY KEY," +
                     "name TEXT NOT NULL," +
                     "course TEXT NOT NULL," +
-                    "grade REAL NOT NULL" +
+                    "grade REAL NOT NULL," +
+                    "course_id INTEGER REFERENCES courses (id)" +
                     ");";
 
             stmt.execute(sql);
+            migrateCourseIds(stmt);
+
+            // Secondary indexes backing the StudentDAO query methods
+            for (String index : INDEXES) {
+                stmt.execute(index);
+            }
+
             LoggerUtil.info("DatabaseConnection", "Database initialized successfully");
 
         } catch (SQLException e) {
@@ -52,9 +130,95 @@ public class DatabaseConnection {
         }
     }
 
-    // Get a database connection
+    // Add course_id to databases created before the courses table existed and fill it
+    // in for any rows without one. The course text column is kept so older builds can
+    // still read the file.
+    private void migrateCourseIds(Statement stmt) throws SQLException {
+        boolean hasCourseId = false;
+        try (ResultSet columns = stmt.executeQuery("PRAGMA table_info(students)")) {
+            while (columns.next()) {
+                if ("course_id".equals(columns.getString("name"))) {
+                    hasCourseId = true;
+                }
+            }
+        }
+
+        if (!hasCourseId) {
+            LoggerUtil.info("DatabaseConnection", "Adding course_id column to students");
+            stmt.execute("ALTER TABLE students ADD COLUMN course_id INTEGER REFERENCES courses (id)");
+        }
+
+        // The course_id index makes the IS NULL check cheap once the backfill is done
+        stmt.execute(INDEXES[0]);
+        stmt.execute("INSERT INTO courses (name) SELECT DISTINCT course FROM students " +
+                "WHERE course_id IS NULL ON CONFLICT(name) DO NOTHING");
+        int backfilled = stmt.executeUpdate("UPDATE students SET course_id = " +
+                "(SELECT id FROM courses WHERE courses.name = students.course) WHERE course_id IS NULL");
+        if (backfilled > 0) {
+            LoggerUtil.info("DatabaseConnection", "Backfilled course_id for " + backfilled + " students");
+        }
+    }
+
+    // Borrow a pooled read-only connection for queries; closing it returns it to the pool
     public Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
+        return readPool.borrow();
+    }
+
+    // Borrow the write connection, waiting while another caller holds it.
+    // Mutations should normally go through getWriter() instead.
+    public Connection getWriteConnection() throws SQLException {
+        return writePool.borrow();
+    }
+
+    // Get the writer that all inserts, updates and deletes must go through
+    public GroupCommitWriter getWriter() {
+        return writer;
+    }
+
+    // Get read pool metrics
+    public PoolStats getPoolStats() {
+        return readPool.getStats();
+    }
+
+    // Get write connection metrics; wait times show contention for the writer
+    public PoolStats getWritePoolStats() {
+        return writePool.getStats();
+    }
+
+    // Get the active storage profile
+    public StorageProfile getStorageProfile() {
+        return profile;
+    }
+
+    // Get the database file this instance opens
+    public String getFile() {
+        return file;
+    }
+
+    // Drain the writer, stop this instance's writer thread and close both pools. The writer
+    // goes first: the singleton's writes run on the shared DB executor, which is shut down
+    // only after this, so closing the pools first would fail writes still queued.
+    public void shutdown() {
+        try {
+            if (!writer.close(10, TimeUnit.SECONDS)) {
+                LoggerUtil.warning("DatabaseConnection", "Queued writes for " + file + " did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ownedExecutor != null) {
+            // Queued writes run before the thread exits, so nothing acknowledged is lost
+            ownedExecutor.shutdown();
+            try {
+                if (!ownedExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    LoggerUtil.warning("DatabaseConnection", "Writer for " + file + " did not finish in time");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        readPool.close();
+        writePool.close();
     }
 
     // Close resources safely
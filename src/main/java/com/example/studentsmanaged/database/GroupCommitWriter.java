@@ -0,0 +1,293 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.util.LoggerUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Single writer that funnels every database mutation through one executor thread.
+ * Queued writes are coalesced into group commits: one transaction per group, flushed
+ * once the group is full or the oldest write has waited for the maximum delay.
+ * Each write runs inside its own savepoint, so one failing write does not roll back
+ * the others in its group. Commit callbacks run on the writer thread in commit order,
+ * before any future of the group completes. Closing the writer stops new writes and
+ * waits for the queued ones to commit, so the pools can be closed after it.
+ */
+public class GroupCommitWriter {
+    // Group limits, overridable with -Dsms.db.group.* system properties
+    private static final int MAX_GROUP_SIZE = Integer.getInteger("sms.db.group.maxSize", 256);
+    private static final long MAX_GROUP_DELAY_MS = Long.getLong("sms.db.group.maxDelayMs", 2L);
+
+    private final DatabaseConnection dbConnection;
+    private final ExecutorService executor;
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final AtomicBoolean drainScheduled;
+
+    // Set by close(); later submissions fail instead of reaching a closed pool
+    private volatile boolean closed;
+
+    // Metrics
+    private final AtomicLong groupsCommitted = new AtomicLong();
+    private final AtomicLong writesCommitted = new AtomicLong();
+
+    /**
+     * A unit of work executed on the writer's connection inside the group transaction
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface WriteOperation<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Create a writer
+     *
+     * @param dbConnection the database to write to
+     * @param executor the single-threaded executor that owns all writes
+     */
+    public GroupCommitWriter(DatabaseConnection dbConnection, ExecutorService executor) {
+        this.dbConnection = dbConnection;
+        this.executor = executor;
+        this.queue = new LinkedBlockingQueue<>();
+        this.drainScheduled = new AtomicBoolean();
+    }
+
+    /**
+     * Queue a write for the next group commit
+     *
+     * @param operation the write to perform
+     * @param <T> the result type
+     * @return a future completed after the write's group has committed
+     */
+    public <T> CompletableFuture<T> submit(WriteOperation<T> operation) {
+        return submit(operation, null);
+    }
+
+    /**
+     * Queue a write for the next group commit, with a callback for its committed result
+     *
+     * @param operation the write to perform
+     * @param onCommit called with the result on the writer thread once the group has
+     *                 committed, before the future completes; not called if the write failed
+     * @param <T> the result type
+     * @return a future completed after the write's group has committed
+     */
+    public <T> CompletableFuture<T> submit(WriteOperation<T> operation, Consumer<? super T> onCommit) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Writer is closed"));
+        }
+        return enqueue(operation, onCommit);
+    }
+
+    private <T> CompletableFuture<T> enqueue(WriteOperation<T> operation, Consumer<? super T> onCommit) {
+        PendingWrite<T> pending = new PendingWrite<>(operation, onCommit);
+        queue.offer(pending);
+        scheduleDrain();
+        return pending.future;
+    }
+
+    /**
+     * Stop accepting writes and wait for every queued write to commit or fail
+     *
+     * @param timeout the longest time to wait
+     * @param unit the unit of the timeout
+     * @return true if the queue drained in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public boolean close(long timeout, TimeUnit unit) throws InterruptedException {
+        closed = true;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        do {
+            // Writes commit in queue order, so once a no-op queued last completes every
+            // earlier write has completed too. Loop for writes that passed the closed check
+            // just before it was set.
+            CompletableFuture<Void> barrier = enqueue(conn -> null, null);
+            try {
+                barrier.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException e) {
+                // The barrier's group failed or the executor is gone; its writes are complete either way
+                LoggerUtil.warning("GroupCommitWriter", "Final group did not commit: " + e.getCause());
+            }
+        } while (!queue.isEmpty());
+        return true;
+    }
+
+    // Make sure a drain task is queued on the executor
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false);
+                failPending(e);
+            }
+        }
+    }
+
+    // Commit groups until the queue is empty
+    private void drain() {
+        try {
+            PendingWrite<?> first;
+            while ((first = queue.poll()) != null) {
+                List<PendingWrite<?>> group = collectGroup(first);
+                commitGroup(group);
+            }
+        } finally {
+            drainScheduled.set(false);
+        }
+
+        // A write may have been queued after the last poll but before the flag was cleared
+        if (!queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    // Gather writes until the group is full or the delay since the first write expires
+    private List<PendingWrite<?>> collectGroup(PendingWrite<?> first) {
+        List<PendingWrite<?>> group = new ArrayList<>();
+        group.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_GROUP_DELAY_MS);
+        try {
+            while (group.size() < MAX_GROUP_SIZE) {
+                long remaining = deadline - System.nanoTime();
+                PendingWrite<?> next = remaining > 0
+                        ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                        : queue.poll();
+                if (next == null) {
+                    break;
+                }
+                group.add(next);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return group;
+    }
+
+    // Run every write of the group in one transaction, isolating each with a savepoint
+    private void commitGroup(List<PendingWrite<?>> group) {
+        try (Connection conn = dbConnection.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+
+            conn.setAutoCommit(false);
+            try {
+                for (PendingWrite<?> pending : group) {
+                    stmt.execute("SAVEPOINT group_write");
+                    try {
+                        pending.run(conn);
+                        stmt.execute("RELEASE SAVEPOINT group_write");
+                    } catch (SQLException | RuntimeException e) {
+                        stmt.execute("ROLLBACK TO SAVEPOINT group_write");
+                        stmt.execute("RELEASE SAVEPOINT group_write");
+                        pending.error = e;
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+            groupsCommitted.incrementAndGet();
+            writesCommitted.addAndGet(group.size());
+            for (PendingWrite<?> pending : group) {
+                pending.committed();
+            }
+            for (PendingWrite<?> pending : group) {
+                pending.complete();
+            }
+
+        } catch (SQLException | RuntimeException e) {
+            LoggerUtil.error("GroupCommitWriter", "Group commit of " + group.size() + " writes failed", e);
+            for (PendingWrite<?> pending : group) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Fail everything still queued, used when the executor no longer accepts work
+    private void failPending(Exception cause) {
+        PendingWrite<?> pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(cause);
+        }
+    }
+
+    // Number of transactions committed so far
+    public long getGroupsCommitted() {
+        return groupsCommitted.get();
+    }
+
+    // Number of writes committed so far
+    public long getWritesCommitted() {
+        return writesCommitted.get();
+    }
+
+    // Average number of writes per committed transaction
+    public double getAverageGroupSize() {
+        long groups = groupsCommitted.get();
+        return groups == 0 ? 0.0 : writesCommitted.get() / (double) groups;
+    }
+
+    /**
+     * A queued write and the future its caller is waiting on
+     */
+    private static class PendingWrite<T> {
+        private final WriteOperation<T> operation;
+        private final Consumer<? super T> onCommit;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Exception error;
+
+        PendingWrite(WriteOperation<T> operation, Consumer<? super T> onCommit) {
+            this.operation = operation;
+            this.onCommit = onCommit;
+        }
+
+        void run(Connection conn) throws SQLException {
+            result = operation.execute(conn);
+        }
+
+        // Report a successful write to its commit callback
+        void committed() {
+            if (onCommit == null || error != null) {
+                return;
+            }
+            try {
+                onCommit.accept(result);
+            } catch (RuntimeException e) {
+                // The write is durable; a failing callback must not fail it or its group
+                LoggerUtil.error("GroupCommitWriter", "Commit callback failed", e);
+            }
+        }
+
+        // Publish the outcome once the group has committed
+        void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
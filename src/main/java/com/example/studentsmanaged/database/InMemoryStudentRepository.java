@@ -0,0 +1,340 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.models.CourseRegistry;
+import com.example.studentsmanaged.models.CourseStatistics;
+import com.example.studentsmanaged.models.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * Storage engine that keeps students only in memory, for test runs and kiosks.
+ * Backed by a concurrent sorted map, so reads never block and scans come back in
+ * ID order. Writes are serialized so the commit listener sees them in order; each
+ * completes before its future is returned, and batch rows are applied one at a time
+ * rather than atomically. Each course also keeps its students in ranking order, so
+ * top-N, rank and statistics queries read only that course instead of copying the
+ * table through a full scan. Nothing survives a restart.
+ */
+public class InMemoryStudentRepository implements StudentRepository {
+    private final ConcurrentNavigableMap<String, Student> students = new ConcurrentSkipListMap<>();
+
+    // Stored students of each course in RANKING order, keyed by course name; changed under the write lock
+    private final ConcurrentNavigableMap<String, NavigableSet<Student>> rankedByCourse = new ConcurrentSkipListMap<>();
+
+    // Guarded by this, like every write
+    private CommitListener commitListener = CommitListener.NONE;
+
+    @Override
+    public synchronized void setCommitListener(CommitListener listener) {
+        commitListener = listener != null ? listener : CommitListener.NONE;
+    }
+
+    @Override
+    public synchronized CompletableFuture<WriteStatus> addStudentAsync(Student student) {
+        return CompletableFuture.completedFuture(committed(insert(student), student));
+    }
+
+    @Override
+    public synchronized CompletableFuture<WriteStatus> updateStudentAsync(Student student) {
+        return CompletableFuture.completedFuture(committed(update(student), student));
+    }
+
+    @Override
+    public synchronized CompletableFuture<WriteStatus> upsertStudentAsync(Student student) {
+        if (student == null || student.getId() == null) {
+            return CompletableFuture.completedFuture(WriteStatus.FAILED);
+        }
+        Student stored = stored(student);
+        reindex(students.put(student.getId(), stored), stored);
+        return CompletableFuture.completedFuture(committed(WriteStatus.UPDATED, student));
+    }
+
+    @Override
+    public synchronized CompletableFuture<WriteStatus> deleteStudentAsync(String id) {
+        if (id == null) {
+            return CompletableFuture.completedFuture(WriteStatus.FAILED);
+        }
+        Student removed = students.remove(id);
+        if (removed == null) {
+            return CompletableFuture.completedFuture(WriteStatus.NOT_FOUND);
+        }
+        reindex(removed, null);
+        commitListener.committed(List.of(CommitListener.Change.deleted(id)));
+        return CompletableFuture.completedFuture(WriteStatus.DELETED);
+    }
+
+    @Override
+    public BatchResult addStudents(Collection<Student> batch, int batchSize) {
+        return applyBatch(batch, batchSize, true);
+    }
+
+    @Override
+    public BatchResult updateStudents(Collection<Student> batch, int batchSize) {
+        return applyBatch(batch, batchSize, false);
+    }
+
+    @Override
+    public Student getStudentById(String id) {
+        Student student = students.get(id);
+        return student != null ? new Student(student) : null;
+    }
+
+    @Override
+    public boolean studentExists(String id) {
+        return students.containsKey(id);
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids) {
+        Set<String> existing = new HashSet<>();
+        for (String id : ids) {
+            if (id != null && students.containsKey(id)) {
+                existing.add(id);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public int forEachStudent(Consumer<Student> consumer) {
+        int visited = 0;
+        for (Student student : students.values()) {
+            consumer.accept(new Student(student));
+            visited++;
+        }
+        return visited;
+    }
+
+    @Override
+    public Set<String> getAllStudentIds() {
+        return new HashSet<>(students.keySet());
+    }
+
+    @Override
+    public List<Student> getStudentsPage(String afterId, int limit) {
+        Map<String, Student> tail = afterId != null ? students.tailMap(afterId, false) : students;
+        List<Student> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Student student : tail.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(new Student(student));
+        }
+        return page;
+    }
+
+    // Matching is read-only, so only the matches are copied
+    @Override
+    public List<Student> findByCriteria(StudentCriteria criteria) {
+        int limit = criteria.getLimit() > 0 ? criteria.getLimit() : Integer.MAX_VALUE;
+        List<Student> matches = new ArrayList<>();
+        for (Student student : students.values()) {
+            if (matches.size() == limit) {
+                break;
+            }
+            if (criteria.matches(student)) {
+                matches.add(new Student(student));
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public int countByCriteria(StudentCriteria criteria) {
+        int count = 0;
+        for (Student student : students.values()) {
+            if (criteria.matches(student)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<CourseStatistics> getCourseStatistics() {
+        List<CourseStatistics> stats = new ArrayList<>(rankedByCourse.size());
+        for (Map.Entry<String, NavigableSet<Student>> entry : rankedByCourse.entrySet()) {
+            CourseStatistics course = statistics(entry.getKey(), entry.getValue());
+            if (course != null) {
+                stats.add(course);
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public CourseStatistics getCourseStatistics(String course) {
+        NavigableSet<Student> ranked = rankedByCourse.get(course);
+        return ranked != null ? statistics(course, ranked) : null;
+    }
+
+    // Walk the course's ranked set, or merge every course's set when course is null
+    @Override
+    public List<Student> getTopStudents(String course, int n) {
+        if (course != null) {
+            NavigableSet<Student> ranked = rankedByCourse.get(course);
+            return ranked != null ? firstRanked(ranked, n) : new ArrayList<>();
+        }
+
+        List<Student> top = new ArrayList<>();
+        for (NavigableSet<Student> ranked : rankedByCourse.values()) {
+            top.addAll(firstRanked(ranked, n));
+        }
+        top.sort(RANKING);
+        return top.size() > n ? new ArrayList<>(top.subList(0, Math.max(n, 0))) : top;
+    }
+
+    @Override
+    public Map<String, List<Student>> getTopStudentsPerCourse(int n) {
+        Map<String, List<Student>> top = new TreeMap<>();
+        for (Map.Entry<String, NavigableSet<Student>> entry : rankedByCourse.entrySet()) {
+            top.put(entry.getKey(), firstRanked(entry.getValue(), n));
+        }
+        return top;
+    }
+
+    // Counts only the course's students graded higher
+    @Override
+    public int getCourseRank(String id) {
+        Student target = students.get(id);
+        if (target == null) {
+            return 0;
+        }
+        NavigableSet<Student> ranked = rankedByCourse.get(target.getCourse());
+        return ranked != null ? ranked.headSet(gradeProbe(target), false).size() + 1 : 1;
+    }
+
+    @Override
+    public double getCoursePercentile(String id) {
+        Student target = students.get(id);
+        if (target == null) {
+            return Double.NaN;
+        }
+        NavigableSet<Student> ranked = rankedByCourse.get(target.getCourse());
+        if (ranked == null) {
+            return Double.NaN;
+        }
+        int higher = ranked.headSet(gradeProbe(target), false).size();
+        int total = ranked.size();
+        return 100.0 * (total - higher) / total;
+    }
+
+    // Sorts before every student with the target's grade, since RANKING breaks ties by ID
+    private static Student gradeProbe(Student target) {
+        return new Student(null, "", target.getCourse(), target.getGrade());
+    }
+
+    private static List<Student> firstRanked(NavigableSet<Student> ranked, int n) {
+        List<Student> first = new ArrayList<>(Math.max(Math.min(n, 64), 0));
+        for (Student student : ranked) {
+            if (first.size() >= n) {
+                break;
+            }
+            first.add(new Student(student));
+        }
+        return first;
+    }
+
+    // Null if a concurrent delete emptied the course while it was being read
+    private static CourseStatistics statistics(String course, NavigableSet<Student> ranked) {
+        double[] grades = new double[16];
+        int count = 0;
+        for (Student student : ranked) {
+            if (count == grades.length) {
+                grades = Arrays.copyOf(grades, count * 2);
+            }
+            grades[count++] = student.getGrade();
+        }
+        return count > 0 ? CourseStatistics.fromGrades(course, grades, count) : null;
+    }
+
+    private WriteStatus insert(Student student) {
+        if (student == null || student.getId() == null) {
+            return WriteStatus.FAILED;
+        }
+        Student stored = stored(student);
+        if (students.putIfAbsent(student.getId(), stored) != null) {
+            return WriteStatus.DUPLICATE;
+        }
+        reindex(null, stored);
+        return WriteStatus.INSERTED;
+    }
+
+    private WriteStatus update(Student student) {
+        if (student == null || student.getId() == null) {
+            return WriteStatus.FAILED;
+        }
+        Student stored = stored(student);
+        Student previous = students.replace(student.getId(), stored);
+        if (previous == null) {
+            return WriteStatus.NOT_FOUND;
+        }
+        reindex(previous, stored);
+        return WriteStatus.UPDATED;
+    }
+
+    // Move a student between the ranked sets; either side may be null. Callers hold the lock.
+    private void reindex(Student previous, Student current) {
+        if (previous != null) {
+            NavigableSet<Student> ranked = rankedByCourse.get(previous.getCourse());
+            ranked.remove(previous);
+            if (ranked.isEmpty()) {
+                rankedByCourse.remove(previous.getCourse());
+            }
+        }
+        if (current != null) {
+            rankedByCourse.computeIfAbsent(current.getCourse(), c -> new ConcurrentSkipListSet<>(RANKING)).add(current);
+        }
+    }
+
+    // Each row is independent here, so the batch size only has to be valid
+    private synchronized BatchResult applyBatch(Collection<Student> batch, int batchSize, boolean insert) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+
+        BatchResult result = new BatchResult();
+        List<CommitListener.Change> changes = new ArrayList<>();
+        WriteStatus changed = insert ? WriteStatus.INSERTED : WriteStatus.UPDATED;
+        for (Student student : batch) {
+            WriteStatus status = insert ? insert(student) : update(student);
+            result.add(student != null ? student.getId() : null, status,
+                    status == WriteStatus.FAILED ? "Student or student ID is null" : null);
+            if (status == changed) {
+                changes.add(CommitListener.Change.of(status, student));
+            }
+        }
+        if (!changes.isEmpty()) {
+            commitListener.committed(changes);
+        }
+        return result;
+    }
+
+    // Report a single-row write to the commit listener if it changed the row
+    private WriteStatus committed(WriteStatus status, Student student) {
+        if (status == WriteStatus.INSERTED || status == WriteStatus.UPDATED) {
+            commitListener.committed(List.of(CommitListener.Change.of(status, student)));
+        }
+        return status;
+    }
+
+    // Copy so callers cannot change a stored student, sharing the canonical course name
+    private static Student stored(Student student) {
+        Student copy = new Student(student);
+        copy.setCourse(CourseRegistry.canonical(student.getCourse()));
+        return copy;
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.models.CourseRegistry;
+import com.example.studentsmanaged.models.Student;
+import com.example.studentsmanaged.util.LoggerUtil;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Storage engine backed by an append-only log in a memory-mapped file.
+ * Every write appends a record; an in-memory index maps each live ID to the offset
+ * of its latest record, and reads decode straight from the mapping. The index is
+ * rebuilt by scanning the log on open, stopping at the first incomplete record.
+ * <p>
+ * Record layout after an 8-byte header (magic, format version):
+ * type (1 byte), payload length (int), payload. A PUT payload holds the ID, name and
+ * course as length-prefixed UTF-8 followed by the grade as a double; a DELETE payload
+ * holds the ID. Unwritten space is zero, which reads as the end of the log.
+ * <p>
+ * Appends reach the OS page cache immediately, so they survive an application crash;
+ * the mapping is forced to disk after each batch and on close. Old records are not
+ * reclaimed, and the log is limited to 2 GB by the mapping.
+ */
+public class MappedFileStudentRepository implements StudentRepository {
+    private static final int MAGIC = 0x534D5331; // "SMS1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 5;
+
+    private static final byte END = 0;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    // Initial mapping size, overridable with -Dsms.storage.mapped.initialSize; doubled as the log grows
+    private static final long INITIAL_SIZE = Long.getLong("sms.storage.mapped.initialSize", 16L * 1024 * 1024);
+
+    private final Path path;
+    private final FileChannel channel;
+
+    // Swapped for a larger mapping when the log outgrows it
+    private volatile MappedByteBuffer mapped;
+
+    // Next append offset; guarded by this
+    private int writePosition;
+
+    // Live IDs to the offset of their latest PUT record
+    private final ConcurrentNavigableMap<String, Integer> index = new ConcurrentSkipListMap<>();
+
+    // Guarded by this, like every write
+    private CommitListener commitListener = CommitListener.NONE;
+
+    /**
+     * Open or create a log file
+     *
+     * @param path the log file
+     * @throws IOException if the file cannot be opened or is not a student log
+     */
+    public MappedFileStudentRepository(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long size = Math.max(channel.size(), Math.max(INITIAL_SIZE, HEADER_SIZE));
+            this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            if (mapped.getInt(0) == 0) {
+                mapped.putInt(0, MAGIC);
+                mapped.putInt(4, FORMAT_VERSION);
+            } else if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Not a version " + FORMAT_VERSION + " student log: " + path);
+            }
+
+            this.writePosition = recover();
+            LoggerUtil.info("MappedFileStudentRepository", "Opened " + path + " with " + index.size()
+                    + " students (" + writePosition + " bytes of log)");
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Replay the log into the index and return the offset after the last complete record
+    private int recover() {
+        int limit = mapped.capacity();
+        int position = HEADER_SIZE;
+
+        while (position + RECORD_HEADER_SIZE <= limit) {
+            byte type = mapped.get(position);
+            int length = mapped.getInt(position + 1);
+            if (type == END || length < 0 || position + RECORD_HEADER_SIZE + length > limit) {
+                break;
+            }
+
+            String id = readString(mapped, position + RECORD_HEADER_SIZE);
+            if (type == PUT) {
+                index.put(id, position);
+            } else {
+                index.remove(id);
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        // A torn append leaves bytes after the END marker; clear them so later, shorter
+        // records are not followed by leftovers that look like records
+        if (position + RECORD_HEADER_SIZE <= limit && mapped.getInt(position + 1) != 0) {
+            LoggerUtil.warning("MappedFileStudentRepository", "Discarding incomplete record at offset " + position);
+            for (int i = position; i < limit; i++) {
+                mapped.put(i, END);
+            }
+        }
+        return position;
+    }
+
+    @Override
+    public synchronized void setCommitListener(CommitListener listener) {
+        commitListener = listener != null ? listener : CommitListener.NONE;
+    }
+
+    @Override
+    public synchronized CompletableFuture<WriteStatus> addStudentAsync(Student student) {
+        return CompletableFuture.completedFuture(committed(write(student, WriteStatus.INSERTED), student));
+    }
+
+    @Override
+    public synchronized CompletableFuture<WriteStatus> updateStudentAsync(Student student) {
+        return CompletableFuture.completedFuture(committed(write(student, WriteStatus.UPDATED), student));
+    }
+
+    @Override
+    public synchronized CompletableFuture<WriteStatus> upsertStudentAsync(Student student) {
+        return CompletableFuture.completedFuture(committed(write(student, null), student));
+    }
+
+    @Override
+    public synchronized CompletableFuture<WriteStatus> deleteStudentAsync(String id) {
+        if (id == null) {
+            return CompletableFuture.completedFuture(WriteStatus.FAILED);
+        }
+        if (!index.containsKey(id)) {
+            return CompletableFuture.completedFuture(WriteStatus.NOT_FOUND);
+        }
+        try {
+            byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+            int offset = reserve(4 + idBytes.length);
+            writeBytes(offset + RECORD_HEADER_SIZE, idBytes);
+            mapped.put(offset, DELETE);
+            index.remove(id);
+            commitListener.committed(List.of(CommitListener.Change.deleted(id)));
+            return CompletableFuture.completedFuture(WriteStatus.DELETED);
+        } catch (IOException e) {
+            LoggerUtil.error("MappedFileStudentRepository", "Error deleting student: " + id, e);
+            return CompletableFuture.completedFuture(WriteStatus.FAILED);
+        }
+    }
+
+    @Override
+    public BatchResult addStudents(Collection<Student> students, int batchSize) {
+        return writeBatch(students, batchSize, WriteStatus.INSERTED);
+    }
+
+    @Override
+    public BatchResult updateStudents(Collection<Student> students, int batchSize) {
+        return writeBatch(students, batchSize, WriteStatus.UPDATED);
+    }
+
+    @Override
+    public Student getStudentById(String id) {
+        Integer offset = index.get(id);
+        return offset != null ? decode(offset) : null;
+    }
+
+    @Override
+    public boolean studentExists(String id) {
+        return index.containsKey(id);
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids) {
+        Set<String> existing = new HashSet<>();
+        for (String id : ids) {
+            if (id != null && index.containsKey(id)) {
+                existing.add(id);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public int forEachStudent(Consumer<Student> consumer) {
+        int visited = 0;
+        for (int offset : index.values()) {
+            consumer.accept(decode(offset));
+            visited++;
+        }
+        return visited;
+    }
+
+    @Override
+    public Set<String> getAllStudentIds() {
+        return new HashSet<>(index.keySet());
+    }
+
+    @Override
+    public List<Student> getStudentsPage(String afterId, int limit) {
+        Map<String, Integer> tail = afterId != null ? index.tailMap(afterId, false) : index;
+        List<Student> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int offset : tail.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(decode(offset));
+        }
+        return page;
+    }
+
+    // Flush the mapping and close the file
+    @Override
+    public synchronized void close() {
+        try {
+            mapped.force();
+            channel.close();
+        } catch (IOException e) {
+            LoggerUtil.error("MappedFileStudentRepository", "Error closing " + path, e);
+        }
+    }
+
+    // Apply rows one at a time and force the mapping once at the end
+    private synchronized BatchResult writeBatch(Collection<Student> students, int batchSize, WriteStatus expected) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+
+        BatchResult result = new BatchResult();
+        List<CommitListener.Change> changes = new ArrayList<>();
+        for (Student student : students) {
+            WriteStatus status = write(student, expected);
+            result.add(student != null ? student.getId() : null, status,
+                    status == WriteStatus.FAILED ? "Student or student ID is null, or the log is full" : null);
+            if (status == expected) {
+                changes.add(CommitListener.Change.of(status, student));
+            }
+        }
+        mapped.force();
+        if (!changes.isEmpty()) {
+            commitListener.committed(changes);
+        }
+        return result;
+    }
+
+    // Report a single-row write to the commit listener if it changed the row. Callers hold the lock.
+    private WriteStatus committed(WriteStatus status, Student student) {
+        if (status == WriteStatus.INSERTED || status == WriteStatus.UPDATED) {
+            commitListener.committed(List.of(CommitListener.Change.of(status, student)));
+        }
+        return status;
+    }
+
+    // Append a PUT record. expected is INSERTED for adds, UPDATED for updates and null for upserts.
+    private synchronized WriteStatus write(Student student, WriteStatus expected) {
+        if (student == null || student.getId() == null) {
+            return WriteStatus.FAILED;
+        }
+
+        boolean exists = index.containsKey(student.getId());
+        if (expected == WriteStatus.INSERTED && exists) {
+            return WriteStatus.DUPLICATE;
+        }
+        if (expected == WriteStatus.UPDATED && !exists) {
+            return WriteStatus.NOT_FOUND;
+        }
+
+        try {
+            byte[] id = student.getId().getBytes(StandardCharsets.UTF_8);
+            byte[] name = student.getName().getBytes(StandardCharsets.UTF_8);
+            byte[] course = student.getCourse().getBytes(StandardCharsets.UTF_8);
+
+            int offset = reserve(12 + id.length + name.length + course.length + 8);
+            int position = writeBytes(offset + RECORD_HEADER_SIZE, id);
+            position = writeBytes(position, name);
+            position = writeBytes(position, course);
+            mapped.putDouble(position, student.getGrade());
+            mapped.put(offset, PUT);
+
+            // Publish only once the record is complete
+            index.put(student.getId(), offset);
+            return expected == WriteStatus.INSERTED ? WriteStatus.INSERTED : WriteStatus.UPDATED;
+
+        } catch (IOException e) {
+            LoggerUtil.error("MappedFileStudentRepository", "Error writing student: " + student.getId(), e);
+            return WriteStatus.FAILED;
+        }
+    }
+
+    // Claim space for a record and write its length. The caller writes the type byte
+    // last, so a record torn by a crash still reads as END. Callers hold the lock.
+    private int reserve(int payloadLength) throws IOException {
+        long end = (long) writePosition + RECORD_HEADER_SIZE + payloadLength;
+        if (end > mapped.capacity()) {
+            grow(end);
+        }
+        int offset = writePosition;
+        mapped.putInt(offset + 1, payloadLength);
+        writePosition = (int) end;
+        return offset;
+    }
+
+    // Remap the file with at least the required size
+    private void grow(long required) throws IOException {
+        long size = Math.max(required, (long) mapped.capacity() * 2);
+        size = Math.min(size, Integer.MAX_VALUE);
+        if (size < required) {
+            throw new IOException("Student log is full: " + path);
+        }
+        mapped.force();
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        LoggerUtil.debug("MappedFileStudentRepository", "Remapped " + path + " to " + size + " bytes");
+    }
+
+    private int writeBytes(int position, byte[] bytes) {
+        mapped.putInt(position, bytes.length);
+        mapped.put(position + 4, bytes);
+        return position + 4 + bytes.length;
+    }
+
+    // Decode the PUT record at an offset; reads use absolute positions so they are thread-safe
+    private Student decode(int offset) {
+        MappedByteBuffer buffer = mapped;
+        int position = offset + RECORD_HEADER_SIZE;
+
+        String id = readString(buffer, position);
+        position += 4 + buffer.getInt(position);
+        String name = readString(buffer, position);
+        position += 4 + buffer.getInt(position);
+        String course = readString(buffer, position);
+        position += 4 + buffer.getInt(position);
+
+        return new Student(name, id, CourseRegistry.canonical(course), buffer.getDouble(position));
+    }
+
+    private static String readString(MappedByteBuffer buffer, int position) {
+        byte[] bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
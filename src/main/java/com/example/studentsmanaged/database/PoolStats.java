@@ -0,0 +1,118 @@
+package com.example.studentsmanaged.database;
+
+/**
+ * Point-in-time metrics for a {@link ConnectionPool}
+ */
+public class PoolStats {
+    private final String poolName;
+    private final int maxSize;
+    private final int activeCount;
+    private final int idleCount;
+    private final long totalBorrows;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long borrowTimeouts;
+    private final long createdCount;
+    private final long evictedCount;
+    private final long validationFailures;
+    private final long statementHits;
+    private final long statementMisses;
+
+    public PoolStats(String poolName, int maxSize, int activeCount, int idleCount,
+                     long totalBorrows, long totalWaitNanos, long maxWaitNanos, long borrowTimeouts,
+                     long createdCount, long evictedCount, long validationFailures,
+                     long statementHits, long statementMisses) {
+        this.poolName = poolName;
+        this.maxSize = maxSize;
+        this.activeCount = activeCount;
+        this.idleCount = idleCount;
+        this.totalBorrows = totalBorrows;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.borrowTimeouts = borrowTimeouts;
+        this.createdCount = createdCount;
+        this.evictedCount = evictedCount;
+        this.validationFailures = validationFailures;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    public long getTotalBorrows() {
+        return totalBorrows;
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    public long getValidationFailures() {
+        return validationFailures;
+    }
+
+    public long getStatementHits() {
+        return statementHits;
+    }
+
+    public long getStatementMisses() {
+        return statementMisses;
+    }
+
+    // Fraction of prepareStatement calls served from the statement cache
+    public double getStatementHitRatio() {
+        long total = statementHits + statementMisses;
+        return total == 0 ? 0.0 : statementHits / (double) total;
+    }
+
+    // Average time callers waited for a connection, in milliseconds
+    public double getAverageWaitMillis() {
+        return totalBorrows == 0 ? 0.0 : totalWaitNanos / (double) totalBorrows / 1_000_000.0;
+    }
+
+    // Longest time a caller waited for a connection, in milliseconds
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "pool='" + poolName + '\'' +
+                ", active=" + activeCount +
+                ", idle=" + idleCount +
+                ", max=" + maxSize +
+                ", borrows=" + totalBorrows +
+                ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + String.format("%.3f", getMaxWaitMillis()) +
+                ", timeouts=" + borrowTimeouts +
+                ", created=" + createdCount +
+                ", evicted=" + evictedCount +
+                ", validationFailures=" + validationFailures +
+                ", statementHits=" + statementHits +
+                ", statementMisses=" + statementMisses +
+                '}';
+    }
+}
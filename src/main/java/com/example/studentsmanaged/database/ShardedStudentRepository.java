@@ -0,0 +1,543 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.models.CourseStatistics;
+import com.example.studentsmanaged.models.Student;
+import com.example.studentsmanaged.util.LoggerUtil;
+import com.example.studentsmanaged.util.ThreadUtil;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Storage engine that partitions students across several SQLite files by ID hash.
+ * Each shard has its own connection pools and writer thread, so writes to different
+ * shards commit in parallel instead of queueing behind one SQLite lock. Operations on
+ * one ID go to its shard; scans, searches and aggregates run on every shard at once
+ * and their results are merged, so callers see the same ordering as one database.
+ * <p>
+ * Routing depends on the shard count, which is recorded in the first shard; opening
+ * the files with a different count fails rather than misplacing students. A batch is
+ * atomic per shard, not across shards.
+ */
+public class ShardedStudentRepository implements StudentRepository {
+    private static final Comparator<Student> BY_ID = Comparator.comparing(Student::getId);
+
+    private final DatabaseConnection[] connections;
+    private final StudentDAO[] shards;
+
+    // Runs one task per shard for fan-out queries and batches
+    private final ExecutorService fanOutExecutor;
+
+    /**
+     * Open or create the shard files prefix-0.db to prefix-(count-1).db
+     *
+     * @param filePrefix the shard file name prefix
+     * @param shardCount the number of shards
+     * @throws IllegalStateException if the files were created with a different shard count
+     */
+    public ShardedStudentRepository(String filePrefix, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1");
+        }
+
+        this.connections = new DatabaseConnection[shardCount];
+        this.shards = new StudentDAO[shardCount];
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                connections[i] = DatabaseConnection.open(filePrefix + "-" + i + ".db");
+                shards[i] = new StudentDAO(connections[i]);
+            }
+            checkShardCount(connections[0], shardCount);
+        } catch (RuntimeException e) {
+            shutdownConnections();
+            throw e;
+        }
+
+        this.fanOutExecutor = ThreadUtil.newNamedExecutor("Shard-Query", shardCount);
+        LoggerUtil.info("ShardedStudentRepository", "Opened " + shardCount + " shards at " + filePrefix + "-*.db");
+    }
+
+    // Record the shard count on first use, and refuse files created with another count
+    private static void checkShardCount(DatabaseConnection first, int shardCount) {
+        try (Connection conn = first.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS shard_info (shard_count INTEGER NOT NULL)");
+
+            int recorded = 0;
+            try (ResultSet rs = stmt.executeQuery("SELECT shard_count FROM shard_info")) {
+                if (rs.next()) {
+                    recorded = rs.getInt(1);
+                }
+            }
+
+            if (recorded == 0) {
+                stmt.executeUpdate("INSERT INTO shard_info (shard_count) VALUES (" + shardCount + ")");
+            } else if (recorded != shardCount) {
+                throw new IllegalStateException("Shards at " + first.getFile() + " were created with "
+                        + recorded + " shards, not " + shardCount);
+            }
+
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error checking shard count in " + first.getFile(), e);
+        }
+    }
+
+    // Stable across JVMs, since String.hashCode is specified; sequential IDs spread round robin
+    private StudentDAO shardOf(String id) {
+        return shards[Math.floorMod(id.hashCode(), shards.length)];
+    }
+
+    @Override
+    public CompletableFuture<WriteStatus> addStudentAsync(Student student) {
+        if (student == null || student.getId() == null) {
+            return CompletableFuture.completedFuture(WriteStatus.FAILED);
+        }
+        return shardOf(student.getId()).addStudentAsync(student);
+    }
+
+    @Override
+    public CompletableFuture<WriteStatus> updateStudentAsync(Student student) {
+        if (student == null || student.getId() == null) {
+            return CompletableFuture.completedFuture(WriteStatus.FAILED);
+        }
+        return shardOf(student.getId()).updateStudentAsync(student);
+    }
+
+    @Override
+    public CompletableFuture<WriteStatus> upsertStudentAsync(Student student) {
+        if (student == null || student.getId() == null) {
+            return CompletableFuture.completedFuture(WriteStatus.FAILED);
+        }
+        return shardOf(student.getId()).upsertStudentAsync(student);
+    }
+
+    @Override
+    public CompletableFuture<WriteStatus> deleteStudentAsync(String id) {
+        if (id == null) {
+            return CompletableFuture.completedFuture(WriteStatus.FAILED);
+        }
+        return shardOf(id).deleteStudentAsync(id);
+    }
+
+    // Each shard reports from its own writer thread. All of an ID's writes commit on one
+    // shard in order, so serializing delivery keeps every ID's changes in commit order.
+    @Override
+    public void setCommitListener(CommitListener listener) {
+        CommitListener target = listener != null ? listener : CommitListener.NONE;
+        Object lock = new Object();
+        for (StudentDAO shard : shards) {
+            shard.setCommitListener(changes -> {
+                synchronized (lock) {
+                    target.committed(changes);
+                }
+            });
+        }
+    }
+
+    @Override
+    public BatchResult addStudents(Collection<Student> students, int batchSize) {
+        return writeBatch(students, batchSize, true);
+    }
+
+    @Override
+    public BatchResult updateStudents(Collection<Student> students, int batchSize) {
+        return writeBatch(students, batchSize, false);
+    }
+
+    @Override
+    public Student getStudentById(String id) {
+        return id != null ? shardOf(id).getStudentById(id) : null;
+    }
+
+    @Override
+    public boolean studentExists(String id) {
+        return id != null && shardOf(id).studentExists(id);
+    }
+
+    // Each shard is asked only about its own IDs, all shards at once
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids) {
+        List<List<String>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            parts.add(new ArrayList<>());
+        }
+        for (String id : ids) {
+            if (id != null) {
+                parts.get(Math.floorMod(id.hashCode(), shards.length)).add(id);
+            }
+        }
+
+        Set<String> existing = new HashSet<>();
+        for (Set<String> shardIds : fanOut(i -> parts.get(i).isEmpty() ? Set.<String>of()
+                : shards[i].findExistingIds(parts.get(i)))) {
+            existing.addAll(shardIds);
+        }
+        return existing;
+    }
+
+    @Override
+    public int forEachStudent(Consumer<Student> consumer) {
+        int[] visited = new int[1];
+        try (Stream<Student> students = streamAllStudents()) {
+            students.forEach(student -> {
+                consumer.accept(student);
+                visited[0]++;
+            });
+        }
+        return visited[0];
+    }
+
+    // Merge the shard cursors in ID order; closing the stream closes every cursor
+    @Override
+    public Stream<Student> streamAllStudents() {
+        List<Stream<Student>> cursors = new ArrayList<>(shards.length);
+        try {
+            for (StudentDAO shard : shards) {
+                cursors.add(shard.streamAllStudents());
+            }
+        } catch (RuntimeException e) {
+            cursors.forEach(Stream::close);
+            throw e;
+        }
+
+        PriorityQueue<MergeHead> heads = new PriorityQueue<>();
+        for (Stream<Student> cursor : cursors) {
+            MergeHead head = new MergeHead(cursor.iterator());
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+
+        Spliterator<Student> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Student> action) {
+                MergeHead head = heads.poll();
+                if (head == null) {
+                    return false;
+                }
+                action.accept(head.current);
+                if (head.advance()) {
+                    heads.add(head);
+                }
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> cursors.forEach(Stream::close));
+    }
+
+    @Override
+    public Set<String> getAllStudentIds() {
+        Set<String> ids = new HashSet<>();
+        for (Set<String> shardIds : fanOut(i -> shards[i].getAllStudentIds())) {
+            ids.addAll(shardIds);
+        }
+        return ids;
+    }
+
+    // Each shard returns its own first page after afterId; the global page is the smallest of those
+    @Override
+    public List<Student> getStudentsPage(String afterId, int limit) {
+        return mergeById(fanOut(i -> shards[i].getStudentsPage(afterId, limit)), limit);
+    }
+
+    @Override
+    public List<Student> findByCriteria(StudentCriteria criteria) {
+        int limit = criteria.getLimit() > 0 ? criteria.getLimit() : Integer.MAX_VALUE;
+        return mergeById(fanOut(i -> shards[i].findByCriteria(criteria)), limit);
+    }
+
+    @Override
+    public int countByCriteria(StudentCriteria criteria) {
+        int count = 0;
+        for (int shardCount : fanOut(i -> shards[i].countByCriteria(criteria))) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    // Percentiles cannot be combined from per-shard statistics, so the shards gather
+    // grades in parallel and the statistics are computed once from the merged grades
+    @Override
+    public List<CourseStatistics> getCourseStatistics() {
+        return computeCourseStatistics(null);
+    }
+
+    @Override
+    public CourseStatistics getCourseStatistics(String course) {
+        List<CourseStatistics> stats = computeCourseStatistics(course);
+        return stats.isEmpty() ? null : stats.get(0);
+    }
+
+    @Override
+    public List<Student> getTopStudents(String course, int n) {
+        List<Student> candidates = new ArrayList<>();
+        for (List<Student> shardTop : fanOut(i -> shards[i].getTopStudents(course, n))) {
+            candidates.addAll(shardTop);
+        }
+        candidates.sort(RANKING);
+        return new ArrayList<>(candidates.subList(0, Math.min(n, candidates.size())));
+    }
+
+    @Override
+    public Map<String, List<Student>> getTopStudentsPerCourse(int n) {
+        Map<String, List<Student>> top = new TreeMap<>();
+        for (Map<String, List<Student>> shardTop : fanOut(i -> shards[i].getTopStudentsPerCourse(n))) {
+            for (Map.Entry<String, List<Student>> entry : shardTop.entrySet()) {
+                top.computeIfAbsent(entry.getKey(), c -> new ArrayList<>()).addAll(entry.getValue());
+            }
+        }
+        for (Map.Entry<String, List<Student>> entry : top.entrySet()) {
+            List<Student> candidates = entry.getValue();
+            candidates.sort(RANKING);
+            entry.setValue(new ArrayList<>(candidates.subList(0, Math.min(n, candidates.size()))));
+        }
+        return top;
+    }
+
+    @Override
+    public int getCourseRank(String id) {
+        Student target = getStudentById(id);
+        if (target == null) {
+            return 0;
+        }
+        StudentCriteria higher = new StudentCriteria().course(target.getCourse())
+                .minGrade(Math.nextUp(target.getGrade()));
+        return countByCriteria(higher) + 1;
+    }
+
+    @Override
+    public double getCoursePercentile(String id) {
+        Student target = getStudentById(id);
+        if (target == null) {
+            return Double.NaN;
+        }
+        StudentCriteria atOrBelow = new StudentCriteria().course(target.getCourse()).maxGrade(target.getGrade());
+        StudentCriteria enrolled = new StudentCriteria().course(target.getCourse());
+
+        int below = 0;
+        int total = 0;
+        for (int[] counts : fanOut(i -> new int[]{
+                shards[i].countByCriteria(atOrBelow), shards[i].countByCriteria(enrolled)})) {
+            below += counts[0];
+            total += counts[1];
+        }
+        return 100.0 * below / total;
+    }
+
+    // Stop the fan-out threads, drain each shard's writer and close its pools
+    @Override
+    public void close() {
+        fanOutExecutor.shutdown();
+        shutdownConnections();
+    }
+
+    private void shutdownConnections() {
+        for (DatabaseConnection connection : connections) {
+            if (connection != null) {
+                connection.shutdown();
+            }
+        }
+    }
+
+    // Split the rows by shard, write every shard's part in parallel, and report the
+    // outcomes in input order
+    private BatchResult writeBatch(Collection<Student> students, int batchSize, boolean insert) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+
+        List<List<Student>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            parts.add(new ArrayList<>());
+        }
+        int[] rowShards = new int[students.size()];
+        int row = 0;
+        for (Student student : students) {
+            if (student == null || student.getId() == null) {
+                rowShards[row++] = -1;
+                continue;
+            }
+            int shard = Math.floorMod(student.getId().hashCode(), shards.length);
+            parts.get(shard).add(student);
+            rowShards[row++] = shard;
+        }
+
+        List<BatchResult> shardResults = fanOut(i -> parts.get(i).isEmpty() ? new BatchResult()
+                : insert ? shards[i].addStudents(parts.get(i), batchSize)
+                : shards[i].updateStudents(parts.get(i), batchSize));
+
+        List<Iterator<BatchResult.RowResult>> shardRows = new ArrayList<>(shards.length);
+        for (BatchResult shardResult : shardResults) {
+            shardRows.add(shardResult.getRows().iterator());
+        }
+
+        BatchResult result = new BatchResult();
+        for (int shard : rowShards) {
+            if (shard < 0) {
+                result.add(null, WriteStatus.FAILED, "Student or student ID is null");
+            } else {
+                BatchResult.RowResult rowResult = shardRows.get(shard).next();
+                result.add(rowResult.getStudentId(), rowResult.getStatus(), rowResult.getMessage());
+            }
+        }
+        return result;
+    }
+
+    // Run a query on every shard at once and return the results in shard order
+    private <T> List<T> fanOut(IntFunction<T> query) {
+        List<Future<T>> futures = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            int shard = i;
+            futures.add(fanOutExecutor.submit(() -> query.apply(shard)));
+        }
+
+        List<T> results = new ArrayList<>(shards.length);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        }
+        return results;
+    }
+
+    // Merge per-shard lists that are each in ID order, keeping the first limit students
+    private static List<Student> mergeById(List<List<Student>> shardResults, int limit) {
+        List<Student> merged = new ArrayList<>();
+        for (List<Student> shardResult : shardResults) {
+            merged.addAll(shardResult);
+        }
+        merged.sort(BY_ID);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    // Count, sum, min, max and the histogram are merged from each shard's SQL aggregates.
+    // Percentiles come from merging the shards' ascending grade cursors up to the highest
+    // rank any percentile needs, so no student is loaded and no grade is copied.
+    private List<CourseStatistics> computeCourseStatistics(String course) {
+        Map<String, StudentDAO.CourseAccumulator> merged = new TreeMap<>();
+        for (List<StudentDAO.CourseAccumulator> shardCourses : fanOut(i -> shards[i].aggregateCourses(course))) {
+            for (StudentDAO.CourseAccumulator shardCourse : shardCourses) {
+                StudentDAO.CourseAccumulator total = merged.putIfAbsent(shardCourse.getCourse(), shardCourse);
+                if (total != null) {
+                    total.merge(shardCourse);
+                }
+            }
+        }
+
+        List<CourseStatistics> stats = new ArrayList<>(merged.size());
+        for (StudentDAO.CourseAccumulator accumulator : merged.values()) {
+            offerMergedGrades(accumulator);
+            stats.add(accumulator.toStatistics());
+        }
+        return stats;
+    }
+
+    // Feed one course's grades, in ascending order across all shards, to the accumulator
+    private void offerMergedGrades(StudentDAO.CourseAccumulator accumulator) {
+        List<DoubleStream> cursors = new ArrayList<>(shards.length);
+        try {
+            for (StudentDAO shard : shards) {
+                cursors.add(shard.streamCourseGrades(accumulator.getCourse()));
+            }
+
+            PriorityQueue<GradeHead> heads = new PriorityQueue<>();
+            for (DoubleStream cursor : cursors) {
+                GradeHead head = new GradeHead(cursor.iterator());
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+
+            int lastRank = accumulator.getLastRank();
+            for (int rank = 0; rank <= lastRank && !heads.isEmpty(); rank++) {
+                GradeHead head = heads.poll();
+                accumulator.offerRanked(rank, head.current);
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+        } finally {
+            cursors.forEach(DoubleStream::close);
+        }
+    }
+
+    // The next unread grade of one shard cursor, ordered by grade for the merge
+    private static class GradeHead implements Comparable<GradeHead> {
+        private final PrimitiveIterator.OfDouble cursor;
+        private double current;
+
+        GradeHead(PrimitiveIterator.OfDouble cursor) {
+            this.cursor = cursor;
+        }
+
+        boolean advance() {
+            if (!cursor.hasNext()) {
+                return false;
+            }
+            current = cursor.nextDouble();
+            return true;
+        }
+
+        @Override
+        public int compareTo(GradeHead other) {
+            return Double.compare(current, other.current);
+        }
+    }
+
+    // The next unread student of one shard cursor, ordered by ID for the merge
+    private static class MergeHead implements Comparable<MergeHead> {
+        private final Iterator<Student> cursor;
+        private Student current;
+
+        MergeHead(Iterator<Student> cursor) {
+            this.cursor = cursor;
+        }
+
+        boolean advance() {
+            if (!cursor.hasNext()) {
+                return false;
+            }
+            current = cursor.next();
+            return true;
+        }
+
+        @Override
+        public int compareTo(MergeHead other) {
+            return current.getId().compareTo(other.current.getId());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.util.LoggerUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text.
+ * Cached statements are handed out as proxies whose close() only clears their
+ * parameters, so the next prepareStatement() with the same SQL skips SQLite's
+ * parse and plan step. Like the connection it belongs to, the cache is used by
+ * one borrower at a time.
+ */
+class StatementCache {
+    private final Connection connection;
+    private final int capacity;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    // Access-ordered so the eldest entry is the least recently used
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    /**
+     * @param connection the physical connection statements are prepared on
+     * @param capacity the maximum number of cached statements
+     * @param hits pool-wide hit counter
+     * @param misses pool-wide miss counter
+     */
+    StatementCache(Connection connection, int capacity, AtomicLong hits, AtomicLong misses) {
+        this.connection = connection;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get a prepared statement for the SQL, reusing a cached one when it is free
+     *
+     * @param sql the SQL text
+     * @return a statement; closing it returns it to the cache
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse) {
+            hits.incrementAndGet();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        misses.incrementAndGet();
+        PreparedStatement statement = connection.prepareStatement(sql);
+        if (cached != null || capacity <= 0) {
+            // Same SQL already open by this borrower, or caching disabled
+            return statement;
+        }
+
+        cached = new CachedStatement(statement);
+        cached.inUse = true;
+        statements.put(sql, cached);
+        evictOverflow();
+        return cached.proxy;
+    }
+
+    // Drop least recently used statements beyond the capacity
+    private void evictOverflow() {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (statements.size() > capacity && it.hasNext()) {
+            CachedStatement eldest = it.next();
+            it.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * Take back statements a borrower forgot to close, used when the connection is returned
+     */
+    void reclaim() {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                cached.inUse = false;
+                cached.release();
+            }
+        }
+    }
+
+    /**
+     * Close every cached statement, used when the physical connection is closed
+     */
+    void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.closeQuietly();
+        }
+        statements.clear();
+    }
+
+    /**
+     * A cached statement and the proxy handed to borrowers
+     */
+    private static class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        inUse = false;
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + statement + "]";
+                default:
+                    break;
+            }
+
+            if (!inUse) {
+                throw new SQLException("Statement is closed");
+            }
+
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // Reset borrower state so the next user starts clean
+        private void release() {
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.setFetchSize(0);
+                statement.setMaxRows(0);
+            } catch (SQLException e) {
+                LoggerUtil.error("StatementCache", "Error resetting cached statement", e);
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LoggerUtil.error("StatementCache", "Error closing cached statement", e);
+            }
+        }
+    }
+}
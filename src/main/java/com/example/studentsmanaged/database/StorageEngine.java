@@ -0,0 +1,82 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.util.LoggerUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Student storage backends, selected with -Dsms.storage=NAME
+ */
+public enum StorageEngine {
+    // SQLite database file, for the central install
+    SQLITE,
+
+    // Concurrent in-memory map, for ephemeral test runs; nothing is persisted
+    MEMORY,
+
+    // Append-only memory-mapped log at -Dsms.storage.file, for kiosks
+    MAPPED,
+
+    // SQLite files partitioned by ID hash, -Dsms.storage.shards of them, for installs
+    // that outgrow a single writer
+    SHARDED;
+
+    // Engine used when none is configured
+    public static final StorageEngine DEFAULT = SQLITE;
+
+    // Log file used by MAPPED when -Dsms.storage.file is not set
+    private static final String DEFAULT_MAPPED_FILE = "students.log";
+
+    // Shard file prefix used by SHARDED when -Dsms.storage.file is not set
+    private static final String DEFAULT_SHARD_PREFIX = "students-shard";
+
+    // Shards used by SHARDED, overridable with -Dsms.storage.shards; fixed once the files exist
+    private static final int DEFAULT_SHARD_COUNT = 4;
+
+    /**
+     * Get the engine named by the sms.storage system property
+     *
+     * @return the configured engine, or DEFAULT if it is unset or unknown
+     */
+    public static StorageEngine fromSystemProperties() {
+        String name = System.getProperty("sms.storage");
+        if (name == null || name.trim().isEmpty()) {
+            return DEFAULT;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LoggerUtil.warning("StorageEngine", "Unknown storage engine '" + name + "', using " + DEFAULT);
+            return DEFAULT;
+        }
+    }
+
+    /**
+     * Open a repository on this engine
+     *
+     * @return the repository
+     * @throws UncheckedIOException if the MAPPED log cannot be opened
+     * @throws IllegalStateException if the SHARDED files were created with another shard count
+     */
+    public StudentRepository create() {
+        LoggerUtil.info("StorageEngine", "Using " + this + " student storage");
+        switch (this) {
+            case MEMORY:
+                return new InMemoryStudentRepository();
+            case MAPPED:
+                Path file = Path.of(System.getProperty("sms.storage.file", DEFAULT_MAPPED_FILE));
+                try {
+                    return new MappedFileStudentRepository(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot open student log " + file, e);
+                }
+            case SHARDED:
+                return new ShardedStudentRepository(System.getProperty("sms.storage.file", DEFAULT_SHARD_PREFIX),
+                        Integer.getInteger("sms.storage.shards", DEFAULT_SHARD_COUNT));
+            default:
+                return new StudentDAO();
+        }
+    }
+}
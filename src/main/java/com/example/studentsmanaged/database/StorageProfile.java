@@ -0,0 +1,106 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.util.LoggerUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SQLite storage tuning presets, selected with -Dsms.db.profile=NAME
+ */
+public enum StorageProfile {
+    // SQLite's own defaults: rollback journal and full sync
+    LEGACY("DELETE", "FULL", -2_000, 0L, "DEFAULT"),
+
+    // WAL with full sync: readers never block behind the writer, every commit is durable
+    DURABLE("WAL", "FULL", -16_000, 256L * 1024 * 1024, "MEMORY"),
+
+    // WAL with normal sync: commits survive application crashes, the last ones may be lost on power loss
+    BALANCED("WAL", "NORMAL", -16_000, 256L * 1024 * 1024, "MEMORY");
+
+    // Profile used when none is configured
+    public static final StorageProfile DEFAULT = BALANCED;
+
+    private final String journalMode;
+    private final String synchronous;
+    private final int cacheSize;
+    private final long mmapSize;
+    private final String tempStore;
+
+    /**
+     * @param journalMode PRAGMA journal_mode
+     * @param synchronous PRAGMA synchronous
+     * @param cacheSize PRAGMA cache_size; negative values are KiB, positive values pages
+     * @param mmapSize PRAGMA mmap_size in bytes
+     * @param tempStore PRAGMA temp_store
+     */
+    StorageProfile(String journalMode, String synchronous, int cacheSize, long mmapSize, String tempStore) {
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.tempStore = tempStore;
+    }
+
+    /**
+     * Resolve the profile named by the sms.db.profile system property
+     *
+     * @return the configured profile, or DEFAULT if unset or unknown
+     */
+    public static StorageProfile fromSystemProperties() {
+        String name = System.getProperty("sms.db.profile");
+        if (name == null || name.trim().isEmpty()) {
+            return DEFAULT;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LoggerUtil.warning("StorageProfile", "Unknown storage profile '" + name + "', using " + DEFAULT);
+            return DEFAULT;
+        }
+    }
+
+    /**
+     * Configure the connection that performs all writes.
+     * The journal mode is persistent in the database file, so it is set here once.
+     *
+     * @param conn the write connection
+     * @throws SQLException if a pragma fails
+     */
+    public void applyToWriter(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = " + journalMode);
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            applyCommon(stmt);
+        }
+    }
+
+    /**
+     * Configure a read-only query connection
+     *
+     * @param conn the read connection
+     * @throws SQLException if a pragma fails
+     */
+    public void applyToReader(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA query_only = ON");
+            applyCommon(stmt);
+        }
+    }
+
+    // Pragmas shared by readers and the writer
+    private void applyCommon(Statement stmt) throws SQLException {
+        stmt.execute("PRAGMA cache_size = " + cacheSize);
+        stmt.execute("PRAGMA mmap_size = " + mmapSize);
+        stmt.execute("PRAGMA temp_store = " + tempStore);
+    }
+
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.models.Student;
+
+/**
+ * Filter for {@link StudentRepository#findByCriteria(StudentCriteria)}.
+ * Unset fields do not restrict the result; set fields are combined with AND.
+ */
+public class StudentCriteria {
+    private String course;
+    private Double minGrade;
+    private Double maxGrade;
+    private String namePrefix;
+    private int limit;
+
+    // Only students enrolled in this course (exact match)
+    public StudentCriteria course(String course) {
+        this.course = course;
+        return this;
+    }
+
+    // Only students whose grade lies in [minGrade, maxGrade]
+    public StudentCriteria gradeBetween(double minGrade, double maxGrade) {
+        this.minGrade = minGrade;
+        this.maxGrade = maxGrade;
+        return this;
+    }
+
+    // Only students with at least this grade
+    public StudentCriteria minGrade(double minGrade) {
+        this.minGrade = minGrade;
+        return this;
+    }
+
+    // Only students with at most this grade
+    public StudentCriteria maxGrade(double maxGrade) {
+        this.maxGrade = maxGrade;
+        return this;
+    }
+
+    // Only students whose name starts with this prefix (case-sensitive)
+    public StudentCriteria namePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+        return this;
+    }
+
+    // Return at most this many rows; 0 means no limit
+    public StudentCriteria limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    // Check a student against the criteria in memory; the limit is not considered
+    public boolean matches(Student student) {
+        if (course != null && !course.equals(student.getCourse())) {
+            return false;
+        }
+        if (minGrade != null && student.getGrade() < minGrade) {
+            return false;
+        }
+        if (maxGrade != null && student.getGrade() > maxGrade) {
+            return false;
+        }
+        return namePrefix == null || student.getName().startsWith(namePrefix);
+    }
+
+    public String getCourse() {
+        return course;
+    }
+
+    public Double getMinGrade() {
+        return minGrade;
+    }
+
+    public Double getMaxGrade() {
+        return maxGrade;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return "StudentCriteria{" +
+                "course='" + course + '\'' +
+                ", minGrade=" + minGrade +
+                ", maxGrade=" + maxGrade +
+                ", namePrefix='" + namePrefix + '\'' +
+                ", limit=" + limit +
+                '}';
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.studentsmanaged.database;
 
+import com.example.studentsmanaged.models.CourseRegistry;
+import com.example.studentsmanaged.models.CourseStatistics;
 import com.example.studentsmanaged.models.Student;
 import com.example.studentsmanaged.util.LoggerUtil;
 
@@ -7,162 +9,661 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// SQLite storage engine; the default StudentRepository
+public class StudentDAO implements StudentRepository {
+    // Course names live once in the courses table; students reference them by course_id.
+    // The name is registered before a write and resolved by the subquery inside it.
+    private static final String COURSE_ID_SQL = "(SELECT id FROM courses WHERE name = ?)";
+    private static final String REGISTER_COURSE_SQL =
+            "INSERT INTO courses (name) VALUES (?) ON CONFLICT(name) DO NOTHING";
+
+    // Write SQL shared by the single-row and batched paths. Conflicts on id are
+    // resolved by SQLite itself so callers never need a separate existence check.
+    private static final String INSERT_SQL =
+            "INSERT INTO students (id, name, course, course_id, grade) VALUES (?, ?, ?, " + COURSE_ID_SQL + ", ?) " +
+            "ON CONFLICT(id) DO NOTHING";
+    private static final String UPSERT_SQL =
+            "INSERT INTO students (id, name, course, course_id, grade) VALUES (?, ?, ?, " + COURSE_ID_SQL + ", ?) " +
+            "ON CONFLICT(id) DO UPDATE SET name = excluded.name, course = excluded.course, " +
+            "course_id = excluded.course_id, grade = excluded.grade";
+    private static final String UPDATE_SQL =
+            "UPDATE students SET name = ?, course = ?, course_id = " + COURSE_ID_SQL + ", grade = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM students WHERE id = ?";
+
+    // Full scans walk the primary key so results come back in a stable order
+    private static final String SELECT_ALL_SQL = "SELECT id, name, course, grade FROM students ORDER BY id";
+
+    // Rows fetched per round trip when streaming
+    private static final int FETCH_SIZE = 1000;
+
+    // IDs looked up per IN query, well under SQLite's bound parameter limit
+    private static final int EXISTS_BATCH_SIZE = 500;
+    private static final String FIND_EXISTING_SQL = "SELECT id FROM students WHERE id IN ("
+            + String.join(", ", Collections.nCopies(EXISTS_BATCH_SIZE, "?")) + ")";
 
-public class StudentDAO {
     // Database connection
     private final DatabaseConnection dbConnection;
 
+    // Writer that serializes and group-commits all mutations
+    private final GroupCommitWriter writer;
+
+    // Told about every committed change, from the writer thread
+    private volatile CommitListener commitListener = CommitListener.NONE;
+
     // Constructor
     public StudentDAO() {
-        this.dbConnection = DatabaseConnection.getInstance();
+        this(DatabaseConnection.getInstance());
     }
 
-    // Add a student to the database
-    public boolean addStudent(Student student) {
-        String sql = "INSERT INTO students (id, name, course, grade) VALUES (?, ?, ?, ?)";
+    // Use a specific database, such as one shard of a sharded install
+    public StudentDAO(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+        this.writer = dbConnection.getWriter();
+    }
+
+    // Queue a student insert on the group-commit writer
+    public CompletableFuture<WriteStatus> addStudentAsync(Student student) {
         LoggerUtil.debug("StudentDAO", "Adding student with ID: " + student.getId());
+        return writer.submit(conn -> insertStudent(conn, student), status -> committed(status, WriteStatus.INSERTED, student));
+    }
+
+    // Queue a student update on the group-commit writer
+    public CompletableFuture<WriteStatus> updateStudentAsync(Student student) {
+        LoggerUtil.debug("StudentDAO", "Updating student with ID: " + student.getId());
+        return writer.submit(conn -> updateStudent(conn, student), status -> committed(status, WriteStatus.UPDATED, student));
+    }
+
+    // Queue a student upsert on the group-commit writer; completes with UPDATED on success
+    public CompletableFuture<WriteStatus> upsertStudentAsync(Student student) {
+        LoggerUtil.debug("StudentDAO", "Upserting student with ID: " + student.getId());
+        return writer.submit(conn -> upsertStudent(conn, student), status -> committed(status, WriteStatus.UPDATED, student));
+    }
+
+    // Queue a student delete on the group-commit writer
+    public CompletableFuture<WriteStatus> deleteStudentAsync(String id) {
+        LoggerUtil.debug("StudentDAO", "Deleting student with ID: " + id);
+        return writer.submit(conn -> deleteStudent(conn, id), status -> {
+            if (status == WriteStatus.DELETED) {
+                commitListener.committed(List.of(CommitListener.Change.deleted(id)));
+            }
+        });
+    }
+
+    @Override
+    public void setCommitListener(CommitListener listener) {
+        commitListener = listener != null ? listener : CommitListener.NONE;
+    }
+
+    // Report a single-row write to the commit listener if it changed the row
+    private void committed(WriteStatus status, WriteStatus changed, Student student) {
+        if (status == changed) {
+            commitListener.committed(List.of(CommitListener.Change.of(status, student)));
+        }
+    }
+
+    // Insert on the writer's connection
+    private WriteStatus insertStudent(Connection conn, Student student) {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            registerCourse(conn, student.getCourse());
+            bindInsert(pstmt, student);
+
+            if (pstmt.executeUpdate() > 0) {
+                LoggerUtil.info("StudentDAO", "Student added successfully: " + student.getId());
+                return WriteStatus.INSERTED;
+            }
+
+            LoggerUtil.warning("StudentDAO", "Student ID already exists: " + student.getId());
+            return WriteStatus.DUPLICATE;
+
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error adding student: " + student.getId(), e);
+            return WriteStatus.FAILED;
+        }
+    }
+
+    // Update on the writer's connection
+    private WriteStatus updateStudent(Connection conn, Student student) {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+            registerCourse(conn, student.getCourse());
+            bindUpdate(pstmt, student);
+
+            if (pstmt.executeUpdate() > 0) {
+                LoggerUtil.info("StudentDAO", "Student updated successfully: " + student.getId());
+                return WriteStatus.UPDATED;
+            }
+
+            LoggerUtil.warning("StudentDAO", "No student to update with ID: " + student.getId());
+            return WriteStatus.NOT_FOUND;
+
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error updating student: " + student.getId(), e);
+            return WriteStatus.FAILED;
+        }
+    }
+
+    // Upsert on the writer's connection
+    private WriteStatus upsertStudent(Connection conn, Student student) {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+            registerCourse(conn, student.getCourse());
+            bindInsert(pstmt, student);
+
+            if (pstmt.executeUpdate() > 0) {
+                LoggerUtil.info("StudentDAO", "Student saved successfully: " + student.getId());
+                return WriteStatus.UPDATED;
+            }
+
+            LoggerUtil.warning("StudentDAO", "No rows affected when saving student: " + student.getId());
+            return WriteStatus.FAILED;
+
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error saving student: " + student.getId(), e);
+            return WriteStatus.FAILED;
+        }
+    }
+
+    // Add the course to the courses table if it is new, on the writer's connection
+    private static void registerCourse(Connection conn, String course) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(REGISTER_COURSE_SQL)) {
+            pstmt.setString(1, course);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Delete on the writer's connection
+    private WriteStatus deleteStudent(Connection conn, String id) {
+        try (PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+            pstmt.setString(1, id);
+
+            if (pstmt.executeUpdate() > 0) {
+                LoggerUtil.info("StudentDAO", "Student deleted successfully: " + id);
+                return WriteStatus.DELETED;
+            }
+
+            LoggerUtil.warning("StudentDAO", "No student to delete with ID: " + id);
+            return WriteStatus.NOT_FOUND;
+
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error deleting student: " + id, e);
+            return WriteStatus.FAILED;
+        }
+    }
+
+    // Get a student by ID
+    public Student getStudentById(String id) {
+        String sql = "SELECT id, name, course, grade FROM students WHERE id = ?";
 
         Connection conn = null;
         PreparedStatement pstmt = null;
+        ResultSet rs = null;
 
         try {
             conn = dbConnection.getConnection();
             pstmt = conn.prepareStatement(sql);
 
-            pstmt.setString(1, student.getId());
-            pstmt.setString(2, student.getName());
-            pstmt.setString(3, student.getCourse());
-            pstmt.setDouble(4, student.getGrade());
+            pstmt.setString(1, id);
 
-            int rowsAffected = pstmt.executeUpdate();
-            boolean success = rowsAffected > 0;
+            rs = pstmt.executeQuery();
 
-            if (success) {
-                LoggerUtil.info("StudentDAO", "Student added successfully: " + student.getId());
-            } else {
-                LoggerUtil.warning("StudentDAO", "No rows affected when adding student: " + student.getId());
+            if (rs.next()) {
+                return mapStudent(rs);
             }
 
-            return success;
+            return null;
 
         } catch (SQLException e) {
-            LoggerUtil.error("StudentDAO", "Error adding student: " + student.getId(), e);
-            return false;
+            System.err.println("Error getting student by ID: " + e.getMessage());
+            return null;
         } finally {
-            dbConnection.closeResources(conn, pstmt, null);
+            dbConnection.closeResources(conn, pstmt, rs);
         }
     }
 
-    // Update a student in the database
-    public boolean updateStudent(Student student) {
-        String sql = "UPDATE students SET name = ?, course = ?, grade = ? WHERE id = ?";
-        LoggerUtil.debug("StudentDAO", "Updating student with ID: " + student.getId());
+    // Pass every student to the consumer in ID order without holding them in memory
+    public int forEachStudent(Consumer<Student> consumer) {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        int count = 0;
 
+        try {
+            conn = dbConnection.getConnection();
+            pstmt = conn.prepareStatement(SELECT_ALL_SQL);
+            pstmt.setFetchSize(FETCH_SIZE);
+
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                consumer.accept(mapStudent(rs));
+                count++;
+            }
+
+            return count;
+
+        } catch (SQLException e) {
+            System.err.println("Error getting all students: " + e.getMessage());
+            return count;
+        } finally {
+            dbConnection.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    // Stream every student in ID order straight from the database cursor.
+    // The stream holds a pooled connection until it is closed, so callers must
+    // use try-with-resources.
+    public Stream<Student> streamAllStudents() {
         Connection conn = null;
         PreparedStatement pstmt = null;
+        ResultSet rs = null;
 
         try {
             conn = dbConnection.getConnection();
-            pstmt = conn.prepareStatement(sql);
+            pstmt = conn.prepareStatement(SELECT_ALL_SQL);
+            pstmt.setFetchSize(FETCH_SIZE);
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            dbConnection.closeResources(conn, pstmt, rs);
+            throw new IllegalStateException("Error opening student cursor", e);
+        }
 
-            pstmt.setString(1, student.getName());
-            pstmt.setString(2, student.getCourse());
-            pstmt.setDouble(3, student.getGrade());
-            pstmt.setString(4, student.getId());
+        Connection openConn = conn;
+        PreparedStatement openStmt = pstmt;
+        ResultSet cursor = rs;
 
-            int rowsAffected = pstmt.executeUpdate();
-            boolean success = rowsAffected > 0;
+        Spliterator<Student> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Student> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapStudent(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error reading student cursor", e);
+                }
+            }
+        };
 
-            if (success) {
-                LoggerUtil.info("StudentDAO", "Student updated successfully: " + student.getId());
-            } else {
-                LoggerUtil.warning("StudentDAO", "No rows affected when updating student: " + student.getId());
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> dbConnection.closeResources(openConn, openStmt, cursor));
+    }
+
+    // Get every student ID without loading the other columns
+    public Set<String> getAllStudentIds() {
+        String sql = "SELECT id FROM students";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        Set<String> ids = new HashSet<>();
+
+        try {
+            conn = dbConnection.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setFetchSize(FETCH_SIZE);
+
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                ids.add(rs.getString(1));
             }
 
-            return success;
+            return ids;
 
         } catch (SQLException e) {
-            LoggerUtil.error("StudentDAO", "Error updating student: " + student.getId(), e);
-            return false;
+            LoggerUtil.error("StudentDAO", "Error getting student IDs", e);
+            return ids;
         } finally {
-            dbConnection.closeResources(conn, pstmt, null);
+            dbConnection.closeResources(conn, pstmt, rs);
         }
     }
 
-    // Delete a student from the database
-    public boolean deleteStudent(String id) {
-        String sql = "DELETE FROM students WHERE id = ?";
-        LoggerUtil.debug("StudentDAO", "Deleting student with ID: " + id);
+    // Get up to limit students with IDs after afterId, in ID order (keyset pagination).
+    // Pass null for the first page and the last ID of the previous page afterwards.
+    public List<Student> getStudentsPage(String afterId, int limit) {
+        String sql = "SELECT id, name, course, grade FROM students WHERE id > ? ORDER BY id LIMIT ?";
 
         Connection conn = null;
         PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        List<Student> students = new ArrayList<>(Math.min(limit, FETCH_SIZE));
 
         try {
             conn = dbConnection.getConnection();
             pstmt = conn.prepareStatement(sql);
 
-            pstmt.setString(1, id);
+            // Every text ID sorts after the empty string
+            pstmt.setString(1, afterId != null ? afterId : "");
+            pstmt.setInt(2, limit);
 
-            int rowsAffected = pstmt.executeUpdate();
-            boolean success = rowsAffected > 0;
+            rs = pstmt.executeQuery();
 
-            if (success) {
-                LoggerUtil.info("StudentDAO", "Student deleted successfully: " + id);
-            } else {
-                LoggerUtil.warning("StudentDAO", "No rows affected when deleting student: " + id);
+            while (rs.next()) {
+                students.add(mapStudent(rs));
             }
 
-            return success;
+            return students;
 
         } catch (SQLException e) {
-            LoggerUtil.error("StudentDAO", "Error deleting student: " + id, e);
-            return false;
+            System.err.println("Error getting student page: " + e.getMessage());
+            return students;
         } finally {
-            dbConnection.closeResources(conn, pstmt, null);
+            dbConnection.closeResources(conn, pstmt, rs);
         }
     }
 
-    // Get a student by ID
-    public Student getStudentById(String id) {
-        String sql = "SELECT * FROM students WHERE id = ?";
+    // Get the students matching every field set on the criteria, in ID order
+    public List<Student> findByCriteria(StudentCriteria criteria) {
+        StringBuilder sql = new StringBuilder("SELECT id, name, course, grade FROM students");
+        List<Object> params = new ArrayList<>();
+        appendConditions(criteria, sql, params);
+        sql.append(" ORDER BY id");
+        if (criteria.getLimit() > 0) {
+            sql.append(" LIMIT ?");
+            params.add(criteria.getLimit());
+        }
 
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
 
+        List<Student> students = new ArrayList<>();
+
         try {
             conn = dbConnection.getConnection();
-            pstmt = conn.prepareStatement(sql);
+            pstmt = conn.prepareStatement(sql.toString());
 
-            pstmt.setString(1, id);
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
 
             rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                Student student = new Student();
-                student.setId(rs.getString("id"));
-                student.setName(rs.getString("name"));
-                student.setCourse(rs.getString("course"));
-                student.setGrade(rs.getDouble("grade"));
+            while (rs.next()) {
+                students.add(mapStudent(rs));
+            }
+
+            return students;
+
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error finding students by " + criteria, e);
+            return students;
+        } finally {
+            dbConnection.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    // Count the students matching the criteria without reading their rows
+    @Override
+    public int countByCriteria(StudentCriteria criteria) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM students");
+        List<Object> params = new ArrayList<>();
+        appendConditions(criteria, sql, params);
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            pstmt = conn.prepareStatement(sql.toString());
 
-                return student;
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
             }
 
-            return null;
+            rs = pstmt.executeQuery();
+
+            return rs.next() ? rs.getInt(1) : 0;
 
         } catch (SQLException e) {
-            System.err.println("Error getting student by ID: " + e.getMessage());
-            return null;
+            LoggerUtil.error("StudentDAO", "Error counting students by " + criteria, e);
+            return 0;
         } finally {
             dbConnection.closeResources(conn, pstmt, rs);
         }
     }
 
-    // Get all students
-    public List<Student> getAllStudents() {
-        String sql = "SELECT * FROM students";
+    // Translate criteria into sargable WHERE conditions so SQLite can use the
+    // course_id/grade, grade and name indexes
+    private static void appendConditions(StudentCriteria criteria, StringBuilder sql, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+
+        if (criteria.getCourse() != null) {
+            // Integer comparison on the (course_id, grade) index
+            conditions.add("course_id = " + COURSE_ID_SQL);
+            params.add(criteria.getCourse());
+        }
+        if (criteria.getMinGrade() != null) {
+            conditions.add("grade >= ?");
+            params.add(criteria.getMinGrade());
+        }
+        if (criteria.getMaxGrade() != null) {
+            conditions.add("grade <= ?");
+            params.add(criteria.getMaxGrade());
+        }
+        if (criteria.getNamePrefix() != null && !criteria.getNamePrefix().isEmpty()) {
+            // A range on name uses the index, unlike LIKE with the default collation
+            conditions.add("name >= ?");
+            params.add(criteria.getNamePrefix());
+            String upperBound = prefixUpperBound(criteria.getNamePrefix());
+            if (upperBound != null) {
+                conditions.add("name < ?");
+                params.add(upperBound);
+            }
+        }
+
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
+
+    // Smallest string greater than every string starting with prefix, or null if there is none
+    private static String prefixUpperBound(String prefix) {
+        StringBuilder upper = new StringBuilder(prefix);
+        for (int i = upper.length() - 1; i >= 0; i--) {
+            char c = upper.charAt(i);
+            if (c != Character.MAX_VALUE) {
+                upper.setCharAt(i, (char) (c + 1));
+                upper.setLength(i + 1);
+                return upper.toString();
+            }
+        }
+        return null;
+    }
+
+    // Get grade statistics for every course, computed inside SQLite
+    public List<CourseStatistics> getCourseStatistics() {
+        return computeCourseStatistics(null);
+    }
+
+    // Get grade statistics for one course, or null if it has no students
+    public CourseStatistics getCourseStatistics(String course) {
+        List<CourseStatistics> stats = computeCourseStatistics(course);
+        return stats.isEmpty() ? null : stats.get(0);
+    }
+
+    // Count, sum, min and max come from a GROUP BY over (course_id, band), so the histogram
+    // is filled in the same query. Percentiles then need one ordered pass over the
+    // (course_id, grade) index; only the grades at the percentile ranks are kept. Both
+    // queries run in one read transaction so they see the same snapshot of the table.
+    private List<CourseStatistics> computeCourseStatistics(String course) {
+        String where = course != null ? " WHERE course_id = " + COURSE_ID_SQL : "";
+        String gradesSql = "SELECT course_id, grade FROM students" + where + " ORDER BY course_id, grade";
+
+        Map<Long, CourseAccumulator> courses;
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            courses = readCourseAggregates(conn, course);
+
+            pstmt = conn.prepareStatement(gradesSql);
+            pstmt.setFetchSize(FETCH_SIZE);
+            if (course != null) {
+                pstmt.setString(1, course);
+            }
+            rs = pstmt.executeQuery();
+
+            long currentId = Long.MIN_VALUE;
+            CourseAccumulator current = null;
+            int rank = 0;
+            while (rs.next()) {
+                long courseId = rs.getLong("course_id");
+                if (courseId != currentId) {
+                    currentId = courseId;
+                    current = courses.get(courseId);
+                    rank = 0;
+                }
+                if (current != null) {
+                    current.offerRanked(rank++, rs.getDouble("grade"));
+                }
+            }
+            rs.close();
+            conn.commit();
+
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error computing course statistics", e);
+            return new ArrayList<>();
+        } finally {
+            // Returning the connection rolls back an unfinished read and restores auto-commit
+            dbConnection.closeResources(conn, pstmt, rs);
+        }
+
+        List<CourseStatistics> stats = new ArrayList<>(courses.size());
+        for (CourseAccumulator accumulator : courses.values()) {
+            stats.add(accumulator.toStatistics());
+        }
+        stats.sort(Comparator.comparing(CourseStatistics::getCourse, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return stats;
+    }
+
+    // Count, sum, min, max and histogram of one course, or of every course when course is
+    // null, without the percentiles. The sharded repository merges these across shards.
+    List<CourseAccumulator> aggregateCourses(String course) {
+        Connection conn = null;
+        try {
+            conn = dbConnection.getConnection();
+            return new ArrayList<>(readCourseAggregates(conn, course).values());
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error aggregating course grades", e);
+            return new ArrayList<>();
+        } finally {
+            dbConnection.closeResources(conn, null, null);
+        }
+    }
+
+    // The GROUP BY (course_id, band) pass, keyed by course_id
+    private static Map<Long, CourseAccumulator> readCourseAggregates(Connection conn, String course)
+            throws SQLException {
+        String sql = "SELECT course_id, (SELECT name FROM courses WHERE id = course_id) AS course, "
+                + "MAX(MIN(CAST(grade / " + CourseStatistics.BAND_WIDTH + " AS INTEGER), "
+                + (CourseStatistics.BAND_COUNT - 1) + "), 0) AS band, "
+                + "COUNT(*) AS n, SUM(grade) AS total, MIN(grade) AS lo, MAX(grade) AS hi FROM students"
+                + (course != null ? " WHERE course_id = " + COURSE_ID_SQL : "")
+                + " GROUP BY course_id, band ORDER BY course_id, band";
+
+        Map<Long, CourseAccumulator> courses = new LinkedHashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (course != null) {
+                pstmt.setString(1, course);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString("course");
+                    courses.computeIfAbsent(rs.getLong("course_id"), id -> new CourseAccumulator(name))
+                            .addBand(rs.getInt("band"), rs.getInt("n"), rs.getDouble("total"),
+                                    rs.getDouble("lo"), rs.getDouble("hi"));
+                }
+            }
+        }
+        return courses;
+    }
+
+    // One course's grades in ascending order, read off the course_id/grade index without
+    // loading the other columns. The stream holds a pooled connection until it is closed.
+    DoubleStream streamCourseGrades(String course) {
+        String sql = "SELECT grade FROM students WHERE course_id = " + COURSE_ID_SQL + " ORDER BY grade";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setFetchSize(FETCH_SIZE);
+            pstmt.setString(1, course);
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            dbConnection.closeResources(conn, pstmt, rs);
+            throw new IllegalStateException("Error opening grade cursor", e);
+        }
+
+        Connection openConn = conn;
+        PreparedStatement openStmt = pstmt;
+        ResultSet cursor = rs;
+
+        Spliterator.OfDouble spliterator = new Spliterators.AbstractDoubleSpliterator(Long.MAX_VALUE,
+                Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(DoubleConsumer action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(cursor.getDouble(1));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error reading grade cursor", e);
+                }
+            }
+        };
+
+        return StreamSupport.doubleStream(spliterator, false)
+                .onClose(() -> dbConnection.closeResources(openConn, openStmt, cursor));
+    }
+
+    // Top students of one course, or of every course when course is null. The LIMIT is
+    // read off the course_id/grade (or grade) index backwards, so only about n rows are visited.
+    @Override
+    public List<Student> getTopStudents(String course, int n) {
+        String sql = course != null
+                ? "SELECT id, name, course, grade FROM students WHERE course_id = " + COURSE_ID_SQL
+                        + " ORDER BY grade DESC, id LIMIT ?"
+                : "SELECT id, name, course, grade FROM students ORDER BY grade DESC, id LIMIT ?";
 
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -174,31 +675,153 @@ public class StudentDAO {
             conn = dbConnection.getConnection();
             pstmt = conn.prepareStatement(sql);
 
+            int index = 1;
+            if (course != null) {
+                pstmt.setString(index++, course);
+            }
+            pstmt.setInt(index, n);
+
             rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                Student student = new Student();
-                student.setId(rs.getString("id"));
-                student.setName(rs.getString("name"));
-                student.setCourse(rs.getString("course"));
-                student.setGrade(rs.getDouble("grade"));
-
-                students.add(student);
+                students.add(mapStudent(rs));
             }
 
             return students;
 
         } catch (SQLException e) {
-            System.err.println("Error getting all students: " + e.getMessage());
+            LoggerUtil.error("StudentDAO", "Error getting top students for course: " + course, e);
             return students;
         } finally {
             dbConnection.closeResources(conn, pstmt, rs);
         }
     }
 
+    // Top students of every course with one LIMIT query per course, each read backwards off
+    // the course_id/grade index so only about n rows per course are visited. The queries
+    // share one read transaction so every course comes from the same snapshot.
+    @Override
+    public Map<String, List<Student>> getTopStudentsPerCourse(int n) {
+        String coursesSql = "SELECT id, name FROM courses";
+        String topSql = "SELECT id, name, course, grade FROM students WHERE course_id = ? "
+                + "ORDER BY grade DESC, id LIMIT ?";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        Map<String, List<Student>> top = new TreeMap<>();
+
+        try {
+            conn = dbConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            Map<Long, String> courses = new LinkedHashMap<>();
+            pstmt = conn.prepareStatement(coursesSql);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                courses.put(rs.getLong("id"), rs.getString("name"));
+            }
+            rs.close();
+            pstmt.close();
+
+            pstmt = conn.prepareStatement(topSql);
+            pstmt.setInt(2, n);
+            for (Map.Entry<Long, String> course : courses.entrySet()) {
+                pstmt.setLong(1, course.getKey());
+                rs = pstmt.executeQuery();
+                List<Student> students = new ArrayList<>();
+                while (rs.next()) {
+                    students.add(mapStudent(rs));
+                }
+                rs.close();
+                // Courses stay registered after their last student leaves
+                if (!students.isEmpty()) {
+                    top.put(students.get(0).getCourse(), students);
+                }
+            }
+            conn.commit();
+
+            return top;
+
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error getting top students per course", e);
+            return top;
+        } finally {
+            dbConnection.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    // Count the higher grades in the student's course from the covering course_id/grade index
+    @Override
+    public int getCourseRank(String id) {
+        String sql = "SELECT (SELECT COUNT(*) FROM students o "
+                + "WHERE o.course_id = s.course_id AND o.grade > s.grade) + 1 "
+                + "FROM students s WHERE s.id = ?";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, id);
+
+            rs = pstmt.executeQuery();
+
+            return rs.next() ? rs.getInt(1) : 0;
+
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error ranking student: " + id, e);
+            return 0;
+        } finally {
+            dbConnection.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    // Both counts are index range scans over the student's course
+    @Override
+    public double getCoursePercentile(String id) {
+        String sql = "SELECT "
+                + "(SELECT COUNT(*) FROM students o WHERE o.course_id = s.course_id AND o.grade <= s.grade), "
+                + "(SELECT COUNT(*) FROM students o WHERE o.course_id = s.course_id) "
+                + "FROM students s WHERE s.id = ?";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, id);
+
+            rs = pstmt.executeQuery();
+
+            return rs.next() ? 100.0 * rs.getInt(1) / rs.getInt(2) : Double.NaN;
+
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error getting percentile of student: " + id, e);
+            return Double.NaN;
+        } finally {
+            dbConnection.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    // Build a student from the current result set row
+    private static Student mapStudent(ResultSet rs) throws SQLException {
+        Student student = new Student();
+        student.setId(rs.getString("id"));
+        student.setName(rs.getString("name"));
+        student.setCourse(CourseRegistry.canonical(rs.getString("course")));
+        student.setGrade(rs.getDouble("grade"));
+        return student;
+    }
+
     // Check if a student ID already exists
     public boolean studentExists(String id) {
-        String sql = "SELECT COUNT(*) FROM students WHERE id = ?";
+        String sql = "SELECT 1 FROM students WHERE id = ?";
 
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -212,11 +835,7 @@ public class StudentDAO {
 
             rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
-
-            return false;
+            return rs.next();
 
         } catch (SQLException e) {
             System.err.println("Error checking if student exists: " + e.getMessage());
@@ -225,4 +844,308 @@ public class StudentDAO {
             dbConnection.closeResources(conn, pstmt, rs);
         }
     }
-}
\ No newline at end of file
+
+    // Look IDs up EXISTS_BATCH_SIZE at a time with one IN query per batch, all on one
+    // connection. A short last batch repeats its final ID so every batch uses the same
+    // SQL text and the pooled connection's statement cache serves it.
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids) {
+        Set<String> existing = new HashSet<>();
+        List<String> batch = new ArrayList<>(EXISTS_BATCH_SIZE);
+        for (String id : ids) {
+            if (id != null) {
+                batch.add(id);
+            }
+        }
+        if (batch.isEmpty()) {
+            return existing;
+        }
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            pstmt = conn.prepareStatement(FIND_EXISTING_SQL);
+
+            for (int from = 0; from < batch.size(); from += EXISTS_BATCH_SIZE) {
+                int to = Math.min(from + EXISTS_BATCH_SIZE, batch.size());
+                for (int i = 0; i < EXISTS_BATCH_SIZE; i++) {
+                    pstmt.setString(i + 1, batch.get(Math.min(from + i, to - 1)));
+                }
+                rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    existing.add(rs.getString(1));
+                }
+                rs.close();
+            }
+
+            return existing;
+
+        } catch (SQLException e) {
+            LoggerUtil.error("StudentDAO", "Error finding existing student IDs", e);
+            return existing;
+        } finally {
+            dbConnection.closeResources(conn, pstmt, rs);
+        }
+    }
+
+    // Add many students; rows whose ID already exists are reported as DUPLICATE
+    public BatchResult addStudents(Collection<Student> students, int batchSize) {
+        LoggerUtil.info("StudentDAO", "Batch adding " + students.size() + " students");
+        return executeBatched(students, batchSize, INSERT_SQL, StudentDAO::bindInsert,
+                WriteStatus.INSERTED, WriteStatus.DUPLICATE);
+    }
+
+    // Update many students; rows whose ID does not exist are reported as NOT_FOUND
+    public BatchResult updateStudents(Collection<Student> students, int batchSize) {
+        LoggerUtil.info("StudentDAO", "Batch updating " + students.size() + " students");
+        return executeBatched(students, batchSize, UPDATE_SQL, StudentDAO::bindUpdate,
+                WriteStatus.UPDATED, WriteStatus.NOT_FOUND);
+    }
+
+    // Split the students into chunks of batchSize and queue each chunk as one write on
+    // the group-commit writer. All chunks are queued before waiting so the writer can
+    // fold several of them into one transaction.
+    private BatchResult executeBatched(Collection<Student> students, int batchSize, String sql,
+                                       StatementBinder binder, WriteStatus changed, WriteStatus unchanged) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+
+        List<List<Student>> chunks = new ArrayList<>();
+        List<CompletableFuture<ChunkResult>> futures = new ArrayList<>();
+        List<Student> chunk = new ArrayList<>(Math.min(batchSize, students.size()));
+
+        for (Iterator<Student> it = students.iterator(); it.hasNext(); ) {
+            chunk.add(it.next());
+
+            if (chunk.size() == batchSize || !it.hasNext()) {
+                List<Student> queued = chunk;
+                chunks.add(queued);
+                futures.add(writer.submit(conn -> executeChunk(conn, sql, queued, binder, changed, unchanged),
+                        outcome -> committedChunk(queued, outcome, changed)));
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+
+        BatchResult result = new BatchResult();
+        for (int c = 0; c < chunks.size(); c++) {
+            List<Student> queued = chunks.get(c);
+            ChunkResult outcome;
+
+            try {
+                outcome = futures.get(c).join();
+            } catch (CompletionException | CancellationException e) {
+                LoggerUtil.error("StudentDAO", "Error executing batch", e);
+                outcome = new ChunkResult(queued.size());
+                Arrays.fill(outcome.statuses, WriteStatus.FAILED);
+                Arrays.fill(outcome.messages, e.getMessage());
+            }
+
+            for (int i = 0; i < queued.size(); i++) {
+                Student student = queued.get(i);
+                result.add(student != null ? student.getId() : null, outcome.statuses[i], outcome.messages[i]);
+            }
+        }
+
+        LoggerUtil.info("StudentDAO", "Batch finished: " + result);
+        return result;
+    }
+
+    // Report the rows of a committed chunk that changed to the commit listener
+    private void committedChunk(List<Student> chunk, ChunkResult outcome, WriteStatus changed) {
+        List<CommitListener.Change> changes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (outcome.statuses[i] == changed) {
+                changes.add(CommitListener.Change.of(changed, chunk.get(i)));
+            }
+        }
+        if (!changes.isEmpty()) {
+            commitListener.committed(changes);
+        }
+    }
+
+    // Execute one chunk on the writer's connection inside its own savepoint, falling back
+    // to row-by-row execution if the batch as a whole fails
+    private ChunkResult executeChunk(Connection conn, String sql, List<Student> chunk, StatementBinder binder,
+                                     WriteStatus changed, WriteStatus unchanged) throws SQLException {
+        ChunkResult outcome = new ChunkResult(chunk.size());
+        WriteStatus[] statuses = outcome.statuses;
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Student student = chunk.get(i);
+            if (student == null || student.getId() == null) {
+                statuses[i] = WriteStatus.FAILED;
+                outcome.messages[i] = "Student or student ID is null";
+            }
+        }
+
+        // Register each distinct course once, outside the chunk savepoint so the
+        // row-by-row fallback still finds them
+        Set<String> courses = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (statuses[i] != null) {
+                continue;
+            }
+            String course = chunk.get(i).getCourse();
+            if (course != null && courses.add(course)) {
+                registerCourse(conn, course);
+            }
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             Statement stmt = conn.createStatement()) {
+
+            stmt.execute("SAVEPOINT batch_chunk");
+            try {
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (statuses[i] == null) {
+                        binder.bind(pstmt, chunk.get(i));
+                        pstmt.addBatch();
+                    }
+                }
+                int[] counts = pstmt.executeBatch();
+                stmt.execute("RELEASE SAVEPOINT batch_chunk");
+
+                int next = 0;
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (statuses[i] == null) {
+                        statuses[i] = counts[next++] > 0 ? changed : unchanged;
+                    }
+                }
+                return outcome;
+
+            } catch (SQLException e) {
+                LoggerUtil.warning("StudentDAO", "Batch of " + chunk.size()
+                        + " rows failed, retrying row by row: " + e.getMessage());
+                pstmt.clearBatch();
+                stmt.execute("ROLLBACK TO SAVEPOINT batch_chunk");
+                stmt.execute("RELEASE SAVEPOINT batch_chunk");
+            }
+
+            // A failed statement only aborts itself in SQLite, so the good rows still apply
+            for (int i = 0; i < chunk.size(); i++) {
+                if (statuses[i] == WriteStatus.FAILED) {
+                    continue;
+                }
+                try {
+                    binder.bind(pstmt, chunk.get(i));
+                    statuses[i] = pstmt.executeUpdate() > 0 ? changed : unchanged;
+                } catch (SQLException rowError) {
+                    statuses[i] = WriteStatus.FAILED;
+                    outcome.messages[i] = rowError.getMessage();
+                }
+            }
+            return outcome;
+        }
+    }
+
+    // Bind parameters for INSERT_SQL
+    private static void bindInsert(PreparedStatement pstmt, Student student) throws SQLException {
+        pstmt.setString(1, student.getId());
+        pstmt.setString(2, student.getName());
+        pstmt.setString(3, student.getCourse());
+        pstmt.setString(4, student.getCourse());
+        pstmt.setDouble(5, student.getGrade());
+    }
+
+    // Bind parameters for UPDATE_SQL
+    private static void bindUpdate(PreparedStatement pstmt, Student student) throws SQLException {
+        pstmt.setString(1, student.getName());
+        pstmt.setString(2, student.getCourse());
+        pstmt.setString(3, student.getCourse());
+        pstmt.setDouble(4, student.getGrade());
+        pstmt.setString(5, student.getId());
+    }
+
+    // Builds CourseStatistics from per-band aggregates and one ordered pass over the grades
+    static class CourseAccumulator {
+        private static final double[] QUANTILES = {0.25, 0.50, 0.75, 0.90};
+
+        private final String course;
+        private final int[] histogram = new int[CourseStatistics.BAND_COUNT];
+        private int count;
+        private double sum;
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+
+        // Grades at floor and ceil of each quantile's rank, for linear interpolation
+        private final double[] lower = new double[QUANTILES.length];
+        private final double[] upper = new double[QUANTILES.length];
+
+        CourseAccumulator(String course) {
+            this.course = course;
+        }
+
+        void addBand(int band, int n, double total, double lo, double hi) {
+            histogram[band] += n;
+            count += n;
+            sum += total;
+            min = Math.min(min, lo);
+            max = Math.max(max, hi);
+        }
+
+        // Fold in the aggregates of the same course from another shard
+        void merge(CourseAccumulator other) {
+            for (int band = 0; band < histogram.length; band++) {
+                histogram[band] += other.histogram[band];
+            }
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        String getCourse() {
+            return course;
+        }
+
+        // The highest rank offerRanked needs to see; later grades change nothing
+        int getLastRank() {
+            return (int) Math.ceil(QUANTILES[QUANTILES.length - 1] * (count - 1));
+        }
+
+        // Called with rank 0..count-1 in ascending grade order
+        void offerRanked(int rank, double grade) {
+            for (int q = 0; q < QUANTILES.length; q++) {
+                double position = QUANTILES[q] * (count - 1);
+                if (rank == (int) Math.floor(position)) {
+                    lower[q] = grade;
+                }
+                if (rank == (int) Math.ceil(position)) {
+                    upper[q] = grade;
+                }
+            }
+        }
+
+        CourseStatistics toStatistics() {
+            double[] values = new double[QUANTILES.length];
+            for (int q = 0; q < QUANTILES.length; q++) {
+                double position = QUANTILES[q] * (count - 1);
+                double fraction = position - Math.floor(position);
+                values[q] = lower[q] + fraction * (upper[q] - lower[q]);
+            }
+            return new CourseStatistics(course, count, sum / count, min, max,
+                    values[0], values[1], values[2], values[3], histogram);
+        }
+    }
+
+    // Per-row statuses and error messages for one chunk
+    private static class ChunkResult {
+        private final WriteStatus[] statuses;
+        private final String[] messages;
+
+        ChunkResult(int size) {
+            this.statuses = new WriteStatus[size];
+            this.messages = new String[size];
+        }
+    }
+
+    // Binds one student's values to a prepared statement
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement pstmt, Student student) throws SQLException;
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.models.CourseStatistics;
+import com.example.studentsmanaged.models.Student;
+import com.example.studentsmanaged.util.LoggerUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Storage for students, implemented by each storage engine.
+ * Backends only have to provide the asynchronous writes, the batch writes, lookup by
+ * ID and an ordered full scan; every other query has a default built on the scan,
+ * which backends override where they can answer it more cheaply.
+ */
+public interface StudentRepository {
+    // Rows per batch for bulk writes, overridable with -Dsms.db.batchSize
+    int DEFAULT_BATCH_SIZE = Integer.getInteger("sms.db.batchSize", 500);
+
+    // Ranking order: grade descending, then ID so ties come back in a stable order
+    Comparator<Student> RANKING = Comparator.comparingDouble(Student::getGrade).reversed()
+            .thenComparing(Student::getId);
+
+    /**
+     * Insert a student
+     *
+     * @param student the student to add
+     * @return INSERTED, DUPLICATE if the ID is taken, or FAILED
+     */
+    CompletableFuture<WriteStatus> addStudentAsync(Student student);
+
+    /**
+     * Replace an existing student
+     *
+     * @param student the new values
+     * @return UPDATED, NOT_FOUND if the ID does not exist, or FAILED
+     */
+    CompletableFuture<WriteStatus> updateStudentAsync(Student student);
+
+    /**
+     * Insert a student or replace the one with the same ID
+     *
+     * @param student the student to save
+     * @return UPDATED on success, or FAILED
+     */
+    CompletableFuture<WriteStatus> upsertStudentAsync(Student student);
+
+    /**
+     * Remove a student
+     *
+     * @param id the student ID
+     * @return DELETED, NOT_FOUND if the ID does not exist, or FAILED
+     */
+    CompletableFuture<WriteStatus> deleteStudentAsync(String id);
+
+    /**
+     * Insert many students, reporting a status per row in input order
+     *
+     * @param students the students to add
+     * @param batchSize rows per batch
+     * @return per-row outcomes
+     */
+    BatchResult addStudents(Collection<Student> students, int batchSize);
+
+    /**
+     * Update many students, reporting a status per row in input order
+     *
+     * @param students the new values
+     * @param batchSize rows per batch
+     * @return per-row outcomes
+     */
+    BatchResult updateStudents(Collection<Student> students, int batchSize);
+
+    /**
+     * Set the listener told about every committed insert, update and delete, replacing
+     * any earlier one; see {@link CommitListener} for the ordering guarantees
+     *
+     * @param listener the listener, or null for none
+     */
+    void setCommitListener(CommitListener listener);
+
+    /**
+     * Look up one student
+     *
+     * @param id the student ID
+     * @return the student, or null if it does not exist
+     */
+    Student getStudentById(String id);
+
+    /**
+     * Visit every student in ascending ID order without materializing the full list
+     *
+     * @param consumer receives each student
+     * @return the number of students visited
+     */
+    int forEachStudent(Consumer<Student> consumer);
+
+    default WriteStatus addStudent(Student student) {
+        return awaitWrite(addStudentAsync(student), "adding", student.getId());
+    }
+
+    default WriteStatus updateStudent(Student student) {
+        return awaitWrite(updateStudentAsync(student), "updating", student.getId());
+    }
+
+    default boolean upsertStudent(Student student) {
+        return awaitWrite(upsertStudentAsync(student), "saving", student.getId()) == WriteStatus.UPDATED;
+    }
+
+    default WriteStatus deleteStudent(String id) {
+        return awaitWrite(deleteStudentAsync(id), "deleting", id);
+    }
+
+    default BatchResult addStudents(Collection<Student> students) {
+        return addStudents(students, DEFAULT_BATCH_SIZE);
+    }
+
+    default BatchResult updateStudents(Collection<Student> students) {
+        return updateStudents(students, DEFAULT_BATCH_SIZE);
+    }
+
+    default boolean studentExists(String id) {
+        return getStudentById(id) != null;
+    }
+
+    // The subset of the IDs that are stored, from one bulk lookup where the backend has one
+    default Set<String> findExistingIds(Collection<String> ids) {
+        Set<String> existing = new HashSet<>();
+        for (String id : ids) {
+            if (id != null && studentExists(id)) {
+                existing.add(id);
+            }
+        }
+        return existing;
+    }
+
+    default List<Student> getAllStudents() {
+        List<Student> students = new ArrayList<>();
+        forEachStudent(students::add);
+        return students;
+    }
+
+    // The returned stream must be closed so backends can release cursors
+    default Stream<Student> streamAllStudents() {
+        return getAllStudents().stream();
+    }
+
+    default Set<String> getAllStudentIds() {
+        Set<String> ids = new HashSet<>();
+        forEachStudent(student -> ids.add(student.getId()));
+        return ids;
+    }
+
+    // Up to limit students with IDs after afterId (null for the first page), in ID order
+    default List<Student> getStudentsPage(String afterId, int limit) {
+        String after = afterId != null ? afterId : "";
+        List<Student> page = new ArrayList<>(Math.min(limit, 1024));
+        forEachStudent(student -> {
+            if (page.size() < limit && student.getId().compareTo(after) > 0) {
+                page.add(student);
+            }
+        });
+        return page;
+    }
+
+    default List<Student> findByCourse(String course) {
+        return findByCriteria(new StudentCriteria().course(course));
+    }
+
+    default List<Student> findByGradeRange(double minGrade, double maxGrade) {
+        return findByCriteria(new StudentCriteria().gradeBetween(minGrade, maxGrade));
+    }
+
+    default List<Student> findByNamePrefix(String prefix) {
+        return findByCriteria(new StudentCriteria().namePrefix(prefix));
+    }
+
+    // Matching students in ID order
+    default List<Student> findByCriteria(StudentCriteria criteria) {
+        int limit = criteria.getLimit() > 0 ? criteria.getLimit() : Integer.MAX_VALUE;
+        List<Student> students = new ArrayList<>();
+        forEachStudent(student -> {
+            if (students.size() < limit && criteria.matches(student)) {
+                students.add(student);
+            }
+        });
+        return students;
+    }
+
+    // Number of students matching the criteria; the limit is ignored
+    default int countByCriteria(StudentCriteria criteria) {
+        int[] count = new int[1];
+        forEachStudent(student -> {
+            if (criteria.matches(student)) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    // Statistics for every course, ordered by course name
+    default List<CourseStatistics> getCourseStatistics() {
+        return computeCourseStatistics(null);
+    }
+
+    // Statistics for one course, or null if it has no students
+    default CourseStatistics getCourseStatistics(String course) {
+        List<CourseStatistics> stats = computeCourseStatistics(course);
+        return stats.isEmpty() ? null : stats.get(0);
+    }
+
+    // Up to n students of a course (null for every course) by grade, highest first, ties by ID.
+    // One scan through a heap of n, so memory scales with n rather than the table.
+    default List<Student> getTopStudents(String course, int n) {
+        PriorityQueue<Student> heap = new PriorityQueue<>(RANKING.reversed());
+        forEachStudent(student -> {
+            if (course == null || course.equals(student.getCourse())) {
+                offerRanked(heap, student, n);
+            }
+        });
+        return drainRanked(heap);
+    }
+
+    // Up to n top students of every course, keyed by course name, from one scan
+    default Map<String, List<Student>> getTopStudentsPerCourse(int n) {
+        Map<String, PriorityQueue<Student>> heaps = new TreeMap<>();
+        forEachStudent(student -> offerRanked(
+                heaps.computeIfAbsent(student.getCourse(), c -> new PriorityQueue<>(RANKING.reversed())), student, n));
+
+        Map<String, List<Student>> top = new TreeMap<>();
+        for (Map.Entry<String, PriorityQueue<Student>> entry : heaps.entrySet()) {
+            top.put(entry.getKey(), drainRanked(entry.getValue()));
+        }
+        return top;
+    }
+
+    // Competition rank within the student's course: 1 plus the number graded higher, or 0 if not found
+    default int getCourseRank(String id) {
+        Student target = getStudentById(id);
+        if (target == null) {
+            return 0;
+        }
+        int[] higher = new int[1];
+        forEachStudent(student -> {
+            if (student.getCourse().equals(target.getCourse()) && student.getGrade() > target.getGrade()) {
+                higher[0]++;
+            }
+        });
+        return higher[0] + 1;
+    }
+
+    // Percent of the student's course graded at or below the student (0-100], or NaN if not found
+    default double getCoursePercentile(String id) {
+        Student target = getStudentById(id);
+        if (target == null) {
+            return Double.NaN;
+        }
+        int[] counts = new int[2];
+        forEachStudent(student -> {
+            if (student.getCourse().equals(target.getCourse())) {
+                counts[1]++;
+                if (student.getGrade() <= target.getGrade()) {
+                    counts[0]++;
+                }
+            }
+        });
+        return 100.0 * counts[0] / counts[1];
+    }
+
+    // Release files or connections held by the backend
+    default void close() {
+    }
+
+    // Keep the n best-ranked students; the heap head is the worst one kept
+    private static void offerRanked(PriorityQueue<Student> heap, Student student, int n) {
+        if (heap.size() < n) {
+            heap.add(student);
+        } else if (n > 0 && RANKING.compare(student, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(student);
+        }
+    }
+
+    private static List<Student> drainRanked(PriorityQueue<Student> heap) {
+        List<Student> ranked = new ArrayList<>(heap);
+        ranked.sort(RANKING);
+        return ranked;
+    }
+
+    // Gather grades per course in one scan and compute the statistics in memory
+    private List<CourseStatistics> computeCourseStatistics(String course) {
+        Map<String, double[]> grades = new TreeMap<>();
+        Map<String, int[]> counts = new TreeMap<>();
+
+        forEachStudent(student -> {
+            if (course != null && !course.equals(student.getCourse())) {
+                return;
+            }
+            int[] count = counts.computeIfAbsent(student.getCourse(), c -> new int[1]);
+            double[] values = grades.computeIfAbsent(student.getCourse(), c -> new double[16]);
+            if (count[0] == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+                grades.put(student.getCourse(), values);
+            }
+            values[count[0]++] = student.getGrade();
+        });
+
+        List<CourseStatistics> stats = new ArrayList<>(grades.size());
+        for (Map.Entry<String, double[]> entry : grades.entrySet()) {
+            stats.add(CourseStatistics.fromGrades(entry.getKey(), entry.getValue(), counts.get(entry.getKey())[0]));
+        }
+        return stats;
+    }
+
+    // Block until a queued write completes; an exceptional completion is reported as FAILED
+    private static WriteStatus awaitWrite(CompletableFuture<WriteStatus> future, String action, String id) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            LoggerUtil.error("StudentRepository", "Error " + action + " student: " + id, e);
+            return WriteStatus.FAILED;
+        }
+    }
+}
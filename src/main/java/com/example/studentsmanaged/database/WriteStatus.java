@@ -0,0 +1,13 @@
+package com.example.studentsmanaged.database;
+
+/**
+ * Outcome of writing a single student row
+ */
+public enum WriteStatus {
+    INSERTED,
+    UPDATED,
+    DELETED,
+    DUPLICATE,
+    NOT_FOUND,
+    FAILED
+}
@@ -0,0 +1,41 @@
+package com.example.studentsmanaged.models;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Canonical course names shared by every loaded Student.
+// There are only a few dozen distinct courses, so loaders resolve each course
+// string here instead of keeping one copy per row.
+public final class CourseRegistry {
+    // Upper bound on distinct names kept, overridable with -Dsms.courses.maxInterned
+    private static final int MAX_INTERNED = Integer.getInteger("sms.courses.maxInterned", 10_000);
+
+    private static final ConcurrentMap<String, String> COURSES = new ConcurrentHashMap<>();
+
+    private CourseRegistry() {
+    }
+
+    // Get the shared instance of a course name; null stays null
+    public static String canonical(String course) {
+        if (course == null) {
+            return null;
+        }
+
+        String shared = COURSES.get(course);
+        if (shared != null) {
+            return shared;
+        }
+
+        // Past the bound, unusual input is returned as-is rather than growing the map
+        if (COURSES.size() >= MAX_INTERNED) {
+            return course;
+        }
+        shared = COURSES.putIfAbsent(course, course);
+        return shared != null ? shared : course;
+    }
+
+    // Number of distinct course names registered
+    public static int size() {
+        return COURSES.size();
+    }
+}
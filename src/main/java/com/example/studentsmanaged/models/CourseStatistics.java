@@ -0,0 +1,123 @@
+package com.example.studentsmanaged.models;
+
+import java.util.Arrays;
+
+// Aggregate grade statistics for one course
+public class CourseStatistics {
+    // Width of each histogram band; grades of exactly 100 fall into the last band
+    public static final int BAND_WIDTH = 10;
+    public static final int BAND_COUNT = 10;
+
+    private final String course;
+    private final int count;
+    private final double mean;
+    private final double min;
+    private final double max;
+    private final double p25;
+    private final double median;
+    private final double p75;
+    private final double p90;
+    private final int[] histogram;
+
+    // Constructor
+    public CourseStatistics(String course, int count, double mean, double min, double max,
+                            double p25, double median, double p75, double p90, int[] histogram) {
+        this.course = course;
+        this.count = count;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.p25 = p25;
+        this.median = median;
+        this.p75 = p75;
+        this.p90 = p90;
+        this.histogram = histogram.clone();
+    }
+
+    // Compute statistics from a course's grades in memory; percentiles interpolate
+    // linearly between the closest ranks, as the SQLite backend does
+    public static CourseStatistics fromGrades(String course, double[] grades, int count) {
+        double[] sorted = Arrays.copyOf(grades, count);
+        Arrays.sort(sorted);
+
+        int[] histogram = new int[BAND_COUNT];
+        double sum = 0;
+        for (double grade : sorted) {
+            histogram[bandOf(grade)]++;
+            sum += grade;
+        }
+
+        return new CourseStatistics(course, count, sum / count, sorted[0], sorted[count - 1],
+                percentile(sorted, 0.25), percentile(sorted, 0.50), percentile(sorted, 0.75),
+                percentile(sorted, 0.90), histogram);
+    }
+
+    private static double percentile(double[] sorted, double quantile) {
+        double position = quantile * (sorted.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        return sorted[lower] + (position - lower) * (sorted[upper] - sorted[lower]);
+    }
+
+    // Histogram band index for a grade
+    public static int bandOf(double grade) {
+        return Math.max(0, Math.min((int) (grade / BAND_WIDTH), BAND_COUNT - 1));
+    }
+
+    public String getCourse() {
+        return course;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getP25() {
+        return p25;
+    }
+
+    public double getMedian() {
+        return median;
+    }
+
+    public double getP75() {
+        return p75;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    // Number of students per band: [0-10), [10-20), ... [90-100]
+    public int[] getHistogram() {
+        return histogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "CourseStatistics{" +
+                "course='" + course + '\'' +
+                ", count=" + count +
+                ", mean=" + mean +
+                ", min=" + min +
+                ", max=" + max +
+                ", p25=" + p25 +
+                ", median=" + median +
+                ", p75=" + p75 +
+                ", p90=" + p90 +
+                ", histogram=" + Arrays.toString(histogram) +
+                '}';
+    }
+}
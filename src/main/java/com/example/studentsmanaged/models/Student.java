@@ -21,6 +21,11 @@ public class Student {
         this("", "", "", 0.0);
     }
 
+    // Copy constructor
+    public Student(Student other) {
+        this(other.name, other.id, other.course, other.grade);
+    }
+
     // Getters and Setters (encapsulation)
     public String getName() {
         return name;
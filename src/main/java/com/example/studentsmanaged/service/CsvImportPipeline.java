@@ -0,0 +1,316 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.models.Student;
+import com.example.studentsmanaged.util.FileHandler;
+import com.example.studentsmanaged.util.LoggerUtil;
+import com.example.studentsmanaged.util.ParallelCsvReader;
+import com.example.studentsmanaged.util.ThreadUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Streaming CSV import in three stages joined by bounded queues.
+ * The reader parses rows into fixed-size chunks, the validator checks each chunk, and
+ * the writer reconciles each chunk and commits it as one batch. Parsing overlaps with
+ * database writes, a full queue blocks the stage feeding it, and at most a few chunks
+ * are held in memory whatever the file size.
+ * <p>
+ * Each chunk is reconciled against what earlier chunks committed, so a repeated ID in
+ * a later chunk is skipped in INSERT_ONLY mode and counted as an update in UPSERT mode.
+ * A chunk that fails to write is reported as failed and the import carries on. Any
+ * other failure in a stage stops the import: the other stages are interrupted so none
+ * is left blocked on a queue, and the report records the error alongside the chunks
+ * committed before it.
+ * <p>
+ * Files of at least sms.import.parallel.minBytes are parsed by {@link ParallelCsvReader}
+ * over memory-mapped ranges on several threads. Its ranges arrive in file order, so the
+ * rows, chunks and report are the same as with the single-threaded reader.
+ */
+public class CsvImportPipeline {
+    // Rows per chunk and write transaction, overridable with -Dsms.import.chunkSize
+    private static final int CHUNK_SIZE = Integer.getInteger("sms.import.chunkSize", 1000);
+
+    // Chunks buffered between two stages, overridable with -Dsms.import.queueDepth
+    private static final int QUEUE_DEPTH = Integer.getInteger("sms.import.queueDepth", 4);
+
+    // Files at least this large are parsed in parallel, overridable with -Dsms.import.parallel.minBytes
+    private static final long PARALLEL_MIN_BYTES = Long.getLong("sms.import.parallel.minBytes", 64L * 1024 * 1024);
+
+    // Parsing threads for large files, overridable with -Dsms.import.parallelism
+    private static final int PARALLELISM = Integer.getInteger("sms.import.parallelism",
+            Runtime.getRuntime().availableProcessors());
+
+    // Bytes per parallel parse range, overridable with -Dsms.import.parallel.rangeBytes
+    private static final int RANGE_BYTES = Integer.getInteger("sms.import.parallel.rangeBytes", 4 * 1024 * 1024);
+
+    // Marks the end of the input; passed through every stage
+    private static final Chunk END = new Chunk(Collections.emptyList());
+
+    private final ImportReconciler importReconciler;
+
+    public CsvImportPipeline(ImportReconciler importReconciler) {
+        this.importReconciler = importReconciler;
+    }
+
+    /**
+     * Import a CSV file, reading on the calling thread while two stage threads validate and write
+     *
+     * @param filePath the CSV file
+     * @param mode how rows with an existing ID are handled
+     * @return the import summary
+     * @throws InterruptedException if the calling thread is interrupted; committed chunks stay committed
+     */
+    public ImportReport importFile(String filePath, ImportMode mode) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+
+        BlockingQueue<Chunk> parsed = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+        BlockingQueue<Chunk> validated = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+        ExecutorService stages = ThreadUtil.newNamedExecutor("Import-Stage", 2);
+
+        // First unexpected stage failure; the stage that hits it cancels the others
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = Thread.currentThread();
+
+        try {
+            Future<?> validator = stages.submit(() -> runStage("validate",
+                    () -> validateStage(parsed, validated), failure, reader, stages));
+            Future<?> writer = stages.submit(() -> runStage("write",
+                    () -> writeStage(validated, mode, report), failure, reader, stages));
+
+            String readError = null;
+            try {
+                readError = isLarge(filePath)
+                        ? parallelReadStage(filePath, parsed)
+                        : readStage(filePath, parsed);
+            } catch (InterruptedException e) {
+                if (failure.get() == null) {
+                    throw e;
+                }
+            }
+
+            awaitStage(validator, failure);
+            awaitStage(writer, failure);
+
+            // Added last; the writer owns the report until it finishes
+            if (readError != null) {
+                report.addError(readError);
+            }
+            if (failure.get() != null) {
+                // Drop the cancellation interrupt if it arrived after the last blocking call
+                Thread.interrupted();
+                report.addError("Import stopped: " + failure.get());
+            }
+        } catch (ExecutionException e) {
+            // runStage catches every failure, so this is a bug
+            throw new IllegalStateException("Import stage failed", e.getCause());
+        } finally {
+            stages.shutdownNow();
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        LoggerUtil.info("CsvImportPipeline", "Import of " + filePath + " finished: " + report.getSummary());
+        return report;
+    }
+
+    // Parse rows into chunks until the file ends or a read fails; returns the read error, if any.
+    // Rows the parser rejects travel with the chunk being filled when they were read.
+    private String readStage(String filePath, BlockingQueue<Chunk> parsed) throws InterruptedException {
+        String readError = null;
+        List<Student> rows = new ArrayList<>(CHUNK_SIZE);
+        List<String> rejected = new ArrayList<>();
+
+        try (Stream<Student> students = FileHandler.streamCSV(filePath, rejected::add)) {
+            for (Iterator<Student> it = students.iterator(); it.hasNext(); ) {
+                rows.add(it.next());
+                if (rows.size() == CHUNK_SIZE) {
+                    parsed.put(new Chunk(rows, rejected));
+                    rows = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            LoggerUtil.error("CsvImportPipeline", "Error reading " + filePath + "; rows already read are imported", e);
+            readError = "Error reading " + filePath + ": " + e.getCause().getMessage();
+        } catch (RuntimeException e) {
+            LoggerUtil.error("CsvImportPipeline", "Error parsing " + filePath + "; rows already read are imported", e);
+            readError = "Error parsing " + filePath + ": " + e;
+        }
+
+        if (!rows.isEmpty() || !rejected.isEmpty()) {
+            parsed.put(new Chunk(rows, rejected));
+        }
+        parsed.put(END);
+        return readError;
+    }
+
+    // Parse ranges on several threads and re-chunk them in file order
+    private String parallelReadStage(String filePath, BlockingQueue<Chunk> parsed) throws InterruptedException {
+        String readError = null;
+        Rechunker rechunker = new Rechunker(parsed);
+
+        try {
+            FileHandler.readCSVInParallel(filePath, PARALLELISM, RANGE_BYTES, rechunker, rechunker.rejected::add);
+        } catch (IOException e) {
+            LoggerUtil.error("CsvImportPipeline", "Error reading " + filePath + "; rows already read are imported", e);
+            readError = "Error reading " + filePath + ": " + e.getMessage();
+        } catch (RuntimeException e) {
+            // A parse task failed; end the import normally so the report and callback carry the error
+            LoggerUtil.error("CsvImportPipeline", "Error parsing " + filePath + "; rows already read are imported", e);
+            readError = "Error parsing " + filePath + ": " + e;
+        }
+
+        rechunker.flush();
+        parsed.put(END);
+        return readError;
+    }
+
+    // Run a stage body. An unexpected failure is recorded, and the other stages and the
+    // reader are interrupted so none waits on a queue that will never move again.
+    private static Void runStage(String name, Stage stage, AtomicReference<Throwable> failure, Thread reader,
+                                 ExecutorService stages) throws InterruptedException {
+        try {
+            stage.run();
+        } catch (InterruptedException e) {
+            if (failure.get() == null) {
+                throw e;
+            }
+        } catch (RuntimeException | Error e) {
+            LoggerUtil.error("CsvImportPipeline", "Import " + name + " stage failed; stopping the import", e);
+            if (failure.compareAndSet(null, e)) {
+                stages.shutdownNow();
+                reader.interrupt();
+            }
+        }
+        return null;
+    }
+
+    // Wait for a stage to end; the interrupt a failed stage sends is not a reason to stop waiting
+    private static void awaitStage(Future<?> stage, AtomicReference<Throwable> failure)
+            throws InterruptedException, ExecutionException {
+        while (true) {
+            try {
+                stage.get();
+                return;
+            } catch (InterruptedException e) {
+                if (failure.get() == null) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean isLarge(String filePath) {
+        if (filePath.endsWith(FileHandler.GZIP_SUFFIX)) {
+            // Compressed files cannot be mapped; they are decompressed as a stream
+            return false;
+        }
+        try {
+            return PARALLEL_MIN_BYTES >= 0 && Files.size(Path.of(filePath)) >= PARALLEL_MIN_BYTES;
+        } catch (IOException e) {
+            // Missing or unreadable; the sequential reader reports it
+            return false;
+        }
+    }
+
+    private void validateStage(BlockingQueue<Chunk> parsed, BlockingQueue<Chunk> validated)
+            throws InterruptedException {
+        for (Chunk chunk = parsed.take(); chunk != END; chunk = parsed.take()) {
+            chunk.valid = importReconciler.validate(chunk.rows, chunk.errors);
+            validated.put(chunk);
+        }
+        validated.put(END);
+    }
+
+    // Chunks reach the report in file order, so errors are listed in chunk order, each
+    // chunk's rejected rows before its validation failures
+    private void writeStage(BlockingQueue<Chunk> validated, ImportMode mode, ImportReport report)
+            throws InterruptedException {
+        for (Chunk chunk = validated.take(); chunk != END; chunk = validated.take()) {
+            report.addRows(chunk.rows.size() + chunk.rejected.size());
+            chunk.rejected.forEach(report::addInvalid);
+            chunk.errors.forEach(report::addInvalid);
+
+            try {
+                importReconciler.apply(chunk.valid, mode, report, CHUNK_SIZE);
+            } catch (RuntimeException e) {
+                // Keep consuming so the upstream stages never block on a full queue
+                LoggerUtil.error("CsvImportPipeline", "Error writing chunk of " + chunk.valid.size() + " rows", e);
+                for (Student student : chunk.valid) {
+                    report.addFailed(student.getId() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Body of a validate or write stage
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws InterruptedException;
+    }
+
+    // Cuts ranges of any size into chunks; rows left over from one range start the next
+    // chunk, so chunks match the sequential reader's. Rejected rows join the chunk being
+    // filled, as they do with the sequential reader.
+    private static class Rechunker implements ParallelCsvReader.RangeConsumer {
+        private final BlockingQueue<Chunk> parsed;
+        private final List<String> rejected = new ArrayList<>();
+        private List<Student> rows = new ArrayList<>(CHUNK_SIZE);
+
+        Rechunker(BlockingQueue<Chunk> parsed) {
+            this.parsed = parsed;
+        }
+
+        @Override
+        public void accept(List<Student> students) throws InterruptedException {
+            for (Student student : students) {
+                rows.add(student);
+                if (rows.size() == CHUNK_SIZE) {
+                    parsed.put(new Chunk(rows, rejected));
+                    rows = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+        }
+
+        void flush() throws InterruptedException {
+            if (!rows.isEmpty() || !rejected.isEmpty()) {
+                parsed.put(new Chunk(rows, rejected));
+                rows = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+    }
+
+    // Rows handed from one stage to the next; each field is written by one stage only
+    private static class Chunk {
+        private final List<Student> rows;
+        // Rows the parser could not read, described with their line numbers
+        private final List<String> rejected;
+        private final List<String> errors = new ArrayList<>();
+        private List<Student> valid;
+
+        Chunk(List<Student> rows) {
+            this.rows = rows;
+            this.rejected = Collections.emptyList();
+        }
+
+        // Takes the parser's rejections so far and clears them for the next chunk
+        Chunk(List<Student> rows, List<String> rejected) {
+            this.rows = rows;
+            this.rejected = new ArrayList<>(rejected);
+            rejected.clear();
+        }
+    }
+}
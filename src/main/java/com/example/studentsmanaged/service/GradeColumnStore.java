@@ -0,0 +1,318 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.database.StudentRepository;
+import com.example.studentsmanaged.models.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Read-optimized columnar copy of the students table for analytics.
+ * Each column is a primitive or String array indexed by row; courses are
+ * dictionary-encoded to int codes. Filters and group-bys scan the arrays
+ * instead of a List of Student objects, in parallel once the table is large.
+ * Deleted rows are tombstoned and reclaimed by compaction.
+ */
+public class GradeColumnStore {
+    // Below this many rows parallel scans cost more than they save
+    private static final int PARALLEL_THRESHOLD = 50_000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columns; slots at or beyond size are unused
+    private String[] ids;
+    private String[] names;
+    private int[] courseCodes;
+    private double[] grades;
+    private boolean[] deleted;
+    private int size;
+    private int liveCount;
+
+    // Course dictionary: code -> name and name -> code
+    private final List<String> courseNames = new ArrayList<>();
+    private final Map<String, Integer> courseIndex = new HashMap<>();
+
+    // Row of each live student ID
+    private final Map<String, Integer> rowById = new HashMap<>();
+
+    private GradeColumnStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.ids = new String[capacity];
+        this.names = new String[capacity];
+        this.courseCodes = new int[capacity];
+        this.grades = new double[capacity];
+        this.deleted = new boolean[capacity];
+    }
+
+    /**
+     * Build a store from every stored student in one streaming pass
+     *
+     * @param studentRepository the source of the students
+     * @return the populated store
+     */
+    public static GradeColumnStore load(StudentRepository studentRepository) {
+        GradeColumnStore store = new GradeColumnStore(1024);
+        studentRepository.forEachStudent(store::appendRow);
+        return store;
+    }
+
+    /**
+     * Insert a student or replace the row with the same ID
+     *
+     * @param student the stored student
+     */
+    public void upsert(Student student) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.get(student.getId());
+            if (row == null) {
+                appendRow(student);
+            } else {
+                names[row] = student.getName();
+                courseCodes[row] = encodeCourse(student.getCourse());
+                grades[row] = student.getGrade();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a student's row
+     *
+     * @param id the student ID
+     */
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.remove(id);
+            if (row == null) {
+                return;
+            }
+            deleted[row] = true;
+            ids[row] = null;
+            names[row] = null;
+            liveCount--;
+
+            // Reclaim tombstones once they make up half the rows
+            if (size - liveCount > size / 2 && size > 1024) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of students in the store
+     *
+     * @return the live row count
+     */
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count students whose grade lies in [minGrade, maxGrade]
+     *
+     * @param minGrade the lower bound, inclusive
+     * @param maxGrade the upper bound, inclusive
+     * @return the number of matching students
+     */
+    public long countInGradeRange(double minGrade, double maxGrade) {
+        lock.readLock().lock();
+        try {
+            return rows().filter(i -> !deleted[i] && grades[i] >= minGrade && grades[i] <= maxGrade).count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of students per course
+     *
+     * @return course name to student count, in course code order
+     */
+    public Map<String, Integer> countByCourse() {
+        lock.readLock().lock();
+        try {
+            int[] counts = new int[courseNames.size()];
+            for (int i = 0; i < size; i++) {
+                if (!deleted[i]) {
+                    counts[courseCodes[i]]++;
+                }
+            }
+            Map<String, Integer> result = new LinkedHashMap<>();
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    result.put(courseNames.get(code), counts[code]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mean grade per course
+     *
+     * @return course name to mean grade, in course code order
+     */
+    public Map<String, Double> averageByCourse() {
+        lock.readLock().lock();
+        try {
+            int courses = courseNames.size();
+            // Per-thread partial sums merged at the end keep the scan lock-free
+            double[][] partial = rows().collect(
+                    () -> new double[2][courses],
+                    (acc, i) -> {
+                        if (!deleted[i]) {
+                            acc[0][courseCodes[i]] += grades[i];
+                            acc[1][courseCodes[i]]++;
+                        }
+                    },
+                    (left, right) -> {
+                        for (int code = 0; code < courses; code++) {
+                            left[0][code] += right[0][code];
+                            left[1][code] += right[1][code];
+                        }
+                    });
+
+            Map<String, Double> result = new LinkedHashMap<>();
+            for (int code = 0; code < courses; code++) {
+                if (partial[1][code] > 0) {
+                    result.put(courseNames.get(code), partial[0][code] / partial[1][code]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Highest-graded students, optionally within one course
+     *
+     * @param course the course to rank within, or null for all students
+     * @param n the maximum number of students to return
+     * @return up to n students, best grade first, ties broken by ID
+     */
+    public List<Student> topN(String course, int n) {
+        lock.readLock().lock();
+        try {
+            int code = -1;
+            if (course != null) {
+                Integer known = courseIndex.get(course);
+                if (known == null) {
+                    return new ArrayList<>();
+                }
+                code = known;
+            }
+
+            // Insertion into a sorted array of at most n rows: O(size * log n) comparisons
+            int[] best = new int[Math.max(0, n)];
+            int filled = 0;
+            for (int i = 0; i < size && n > 0; i++) {
+                if (deleted[i] || (code >= 0 && courseCodes[i] != code)) {
+                    continue;
+                }
+                if (filled == n && !ranksBefore(i, best[n - 1])) {
+                    continue;
+                }
+                int pos = filled < n ? filled++ : n - 1;
+                while (pos > 0 && ranksBefore(i, best[pos - 1])) {
+                    best[pos] = best[pos - 1];
+                    pos--;
+                }
+                best[pos] = i;
+            }
+
+            List<Student> result = new ArrayList<>(filled);
+            for (int k = 0; k < filled; k++) {
+                result.add(toStudent(best[k]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Higher grade first, then lower ID
+    private boolean ranksBefore(int a, int b) {
+        int byGrade = Double.compare(grades[b], grades[a]);
+        return byGrade != 0 ? byGrade < 0 : ids[a].compareTo(ids[b]) < 0;
+    }
+
+    private Student toStudent(int row) {
+        return new Student(names[row], ids[row], courseNames.get(courseCodes[row]), grades[row]);
+    }
+
+    // Row indexes to scan, parallel for large tables
+    private IntStream rows() {
+        IntStream rows = IntStream.range(0, size);
+        return size >= PARALLEL_THRESHOLD ? rows.parallel() : rows;
+    }
+
+    // Append a row; callers hold the write lock or own the store exclusively
+    private void appendRow(Student student) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            courseCodes = Arrays.copyOf(courseCodes, capacity);
+            grades = Arrays.copyOf(grades, capacity);
+            deleted = Arrays.copyOf(deleted, capacity);
+        }
+        ids[size] = student.getId();
+        names[size] = student.getName();
+        courseCodes[size] = encodeCourse(student.getCourse());
+        grades[size] = student.getGrade();
+        deleted[size] = false;
+        rowById.put(student.getId(), size);
+        size++;
+        liveCount++;
+    }
+
+    private int encodeCourse(String course) {
+        Integer code = courseIndex.get(course);
+        if (code == null) {
+            code = courseNames.size();
+            courseNames.add(course);
+            courseIndex.put(course, code);
+        }
+        return code;
+    }
+
+    // Slide live rows over tombstones and rebuild the ID index
+    private void compact() {
+        int target = 0;
+        for (int i = 0; i < size; i++) {
+            if (deleted[i]) {
+                continue;
+            }
+            ids[target] = ids[i];
+            names[target] = names[i];
+            courseCodes[target] = courseCodes[i];
+            grades[target] = grades[i];
+            deleted[target] = false;
+            rowById.put(ids[target], target);
+            target++;
+        }
+        Arrays.fill(ids, target, size, null);
+        Arrays.fill(names, target, size, null);
+        size = target;
+    }
+}
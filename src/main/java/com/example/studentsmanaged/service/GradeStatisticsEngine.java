@@ -0,0 +1,250 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.database.StudentRepository;
+import com.example.studentsmanaged.models.CourseStatistics;
+import com.example.studentsmanaged.models.Student;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Per-course grade histograms kept current by change events.
+ * Grades are bounded to 0-100, so each course holds one counter per 0.01 of grade
+ * plus the exact count and sum. Percentiles are read from the counters in O(buckets)
+ * instead of sorting the grades, so they are exact only to the 0.01 resolution.
+ * Band counts are kept from the unrounded grades, and min/max from an ordered count
+ * of the distinct grades, so those match a full sort exactly.
+ */
+public class GradeStatisticsEngine {
+    // Buckets per grade point
+    private static final int RESOLUTION = 100;
+    private static final int BUCKET_COUNT = 100 * RESOLUTION + 1;
+
+    private final Map<String, CourseHistogram> courses = new TreeMap<>();
+
+    // Course and bucket currently counted for each student, to undo on update or delete
+    private final Map<String, Placement> placements = new HashMap<>();
+
+    private GradeStatisticsEngine() {
+    }
+
+    /**
+     * Build the histograms from every stored student in one pass
+     *
+     * @param studentRepository the source of the students
+     * @return the populated engine
+     */
+    public static GradeStatisticsEngine load(StudentRepository studentRepository) {
+        GradeStatisticsEngine engine = new GradeStatisticsEngine();
+        studentRepository.forEachStudent(engine::add);
+        return engine;
+    }
+
+    /**
+     * Apply committed changes
+     *
+     * @param events the changes in commit order
+     */
+    public synchronized void apply(List<StudentChangeEvent> events) {
+        for (StudentChangeEvent event : events) {
+            remove(event.getStudentId());
+            if (event.getType() != StudentChangeEvent.Type.DELETED) {
+                add(event.getStudent());
+            }
+        }
+    }
+
+    /**
+     * Statistics for every course
+     *
+     * @return one entry per course with students, ordered by course name
+     */
+    public synchronized List<CourseStatistics> getCourseStatistics() {
+        List<CourseStatistics> stats = new ArrayList<>(courses.size());
+        for (CourseHistogram histogram : courses.values()) {
+            stats.add(histogram.toStatistics());
+        }
+        return stats;
+    }
+
+    /**
+     * Statistics for one course
+     *
+     * @param course the course name
+     * @return the statistics, or null if the course has no students
+     */
+    public synchronized CourseStatistics getCourseStatistics(String course) {
+        CourseHistogram histogram = courses.get(course);
+        return histogram != null ? histogram.toStatistics() : null;
+    }
+
+    /**
+     * A grade percentile within one course
+     *
+     * @param course the course name
+     * @param quantile the quantile, between 0 and 1
+     * @return the interpolated grade, or NaN if the course has no students
+     */
+    public synchronized double percentile(String course, double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        CourseHistogram histogram = courses.get(course);
+        return histogram != null ? histogram.quantiles(new double[]{quantile})[0] : Double.NaN;
+    }
+
+    private void add(Student student) {
+        int bucket = bucketOf(student.getGrade());
+        courses.computeIfAbsent(student.getCourse(), CourseHistogram::new).add(bucket, student.getGrade());
+        placements.put(student.getId(), new Placement(student.getCourse(), bucket, student.getGrade()));
+    }
+
+    private void remove(String id) {
+        Placement placement = placements.remove(id);
+        if (placement == null) {
+            return;
+        }
+        CourseHistogram histogram = courses.get(placement.course);
+        histogram.remove(placement.bucket, placement.grade);
+        if (histogram.count == 0) {
+            courses.remove(placement.course);
+        }
+    }
+
+    private static int bucketOf(double grade) {
+        return (int) Math.max(0, Math.min(BUCKET_COUNT - 1, Math.round(grade * RESOLUTION)));
+    }
+
+    private static double gradeOf(int bucket) {
+        return bucket / (double) RESOLUTION;
+    }
+
+    // Where a student is counted; the exact grade keeps the sum exact on removal
+    private static class Placement {
+        private final String course;
+        private final int bucket;
+        private final double grade;
+
+        Placement(String course, int bucket, double grade) {
+            this.course = course;
+            this.bucket = bucket;
+            this.grade = grade;
+        }
+    }
+
+    // Fixed-bucket histogram of one course's grades
+    private static class CourseHistogram {
+        private static final double[] QUANTILES = {0.25, 0.50, 0.75, 0.90};
+
+        private final String course;
+        private final int[] buckets = new int[BUCKET_COUNT];
+        private int count;
+        private double sum;
+
+        // Counts per band from the unrounded grades
+        private final int[] bands = new int[CourseStatistics.BAND_COUNT];
+
+        // Students per distinct grade, for the exact min and max
+        private final NavigableMap<Double, Integer> grades = new TreeMap<>();
+
+        // Lowest and highest non-empty buckets
+        private int minBucket = BUCKET_COUNT;
+        private int maxBucket = -1;
+
+        CourseHistogram(String course) {
+            this.course = course;
+        }
+
+        void add(int bucket, double grade) {
+            buckets[bucket]++;
+            count++;
+            sum += grade;
+            bands[CourseStatistics.bandOf(grade)]++;
+            grades.merge(grade, 1, Integer::sum);
+            minBucket = Math.min(minBucket, bucket);
+            maxBucket = Math.max(maxBucket, bucket);
+        }
+
+        void remove(int bucket, double grade) {
+            buckets[bucket]--;
+            count--;
+            sum -= grade;
+            bands[CourseStatistics.bandOf(grade)]--;
+            grades.computeIfPresent(grade, (g, n) -> n > 1 ? n - 1 : null);
+            if (count == 0) {
+                minBucket = BUCKET_COUNT;
+                maxBucket = -1;
+                sum = 0;
+                return;
+            }
+            // Walk inward only when the removed grade was an extreme
+            while (buckets[minBucket] == 0) {
+                minBucket++;
+            }
+            while (buckets[maxBucket] == 0) {
+                maxBucket--;
+            }
+        }
+
+        // Interpolated grades at each quantile, from one cumulative walk over the buckets
+        double[] quantiles(double[] quantiles) {
+            double[] values = new double[quantiles.length];
+            double[] lower = new double[quantiles.length];
+            long seen = 0;
+            int q = 0;
+
+            // Ranks are visited in ascending order, so each quantile resolves as the walk passes it
+            int[] order = sortedIndexes(quantiles);
+            for (int bucket = minBucket; bucket <= maxBucket && q < order.length; bucket++) {
+                int n = buckets[bucket];
+                if (n == 0) {
+                    continue;
+                }
+                long last = seen + n - 1;
+                for (int j = q; j < order.length; j++) {
+                    long floor = (long) Math.floor(quantiles[order[j]] * (count - 1));
+                    if (floor >= seen && floor <= last) {
+                        lower[order[j]] = gradeOf(bucket);
+                    }
+                }
+                while (q < order.length) {
+                    double position = quantiles[order[q]] * (count - 1);
+                    if ((long) Math.ceil(position) > last) {
+                        break;
+                    }
+                    double fraction = position - Math.floor(position);
+                    values[order[q]] = lower[order[q]] + fraction * (gradeOf(bucket) - lower[order[q]]);
+                    q++;
+                }
+                seen += n;
+            }
+            return values;
+        }
+
+        CourseStatistics toStatistics() {
+            double[] values = quantiles(QUANTILES);
+            return new CourseStatistics(course, count, sum / count, grades.firstKey(), grades.lastKey(),
+                    values[0], values[1], values[2], values[3], bands);
+        }
+
+        private static int[] sortedIndexes(double[] quantiles) {
+            int[] order = new int[quantiles.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            // Insertion sort; there are only a handful of quantiles
+            for (int i = 1; i < order.length; i++) {
+                for (int j = i; j > 0 && quantiles[order[j]] < quantiles[order[j - 1]]; j--) {
+                    int swap = order[j];
+                    order[j] = order[j - 1];
+                    order[j - 1] = swap;
+                }
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.studentsmanaged.service;
+
+/**
+ * How imported rows whose ID already exists are handled
+ */
+public enum ImportMode {
+    // Keep the stored student and skip the imported row
+    INSERT_ONLY,
+
+    // Overwrite the stored student with the imported row
+    UPSERT
+}
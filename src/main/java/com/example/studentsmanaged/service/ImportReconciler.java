@@ -0,0 +1,165 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.database.BatchResult;
+import com.example.studentsmanaged.database.StudentRepository;
+import com.example.studentsmanaged.database.WriteStatus;
+import com.example.studentsmanaged.models.Student;
+import com.example.studentsmanaged.util.LoggerUtil;
+import com.example.studentsmanaged.util.StudentManagementException;
+import com.example.studentsmanaged.util.ValidationUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Reconciles imported rows against the stored students.
+ * IDs the ID filter rules out are new without asking storage; the rest are checked one
+ * by one, or against all stored IDs loaded once if there are many. Every row is then
+ * classified as insert, update, skip or invalid in memory, and the inserts and updates
+ * are written with the repository's batch methods. The repository reports the rows
+ * that were written as they commit, and the service publishes them as change events.
+ */
+public class ImportReconciler {
+    private final StudentRepository studentRepository;
+    private final StudentCache studentCache;
+    private final Supplier<StudentIdFilter> idFilter;
+
+    public ImportReconciler(StudentRepository studentRepository, StudentCache studentCache,
+                            Supplier<StudentIdFilter> idFilter) {
+        this.studentRepository = studentRepository;
+        this.studentCache = studentCache;
+        this.idFilter = idFilter;
+    }
+
+    /**
+     * Classify and apply imported rows
+     *
+     * @param rows the parsed rows in file order
+     * @param mode how rows with an existing ID are handled
+     * @return the import summary
+     */
+    public ImportReport reconcile(List<Student> rows, ImportMode mode) {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+        report.addRows(rows.size());
+
+        List<String> errors = new ArrayList<>();
+        List<Student> valid = validate(rows, errors);
+        errors.forEach(report::addInvalid);
+
+        apply(valid, mode, report, StudentRepository.DEFAULT_BATCH_SIZE);
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        LoggerUtil.info("ImportReconciler", "Import finished: " + report.getSummary());
+        return report;
+    }
+
+    /**
+     * Check rows against the validation rules
+     *
+     * @param rows the parsed rows
+     * @param errors receives one message per invalid row, in row order
+     * @return the valid rows, in row order
+     */
+    List<Student> validate(List<Student> rows, List<String> errors) {
+        List<Student> valid = new ArrayList<>(rows.size());
+        for (Student student : rows) {
+            try {
+                ValidationUtil.validateStudent(student);
+                valid.add(student);
+            } catch (StudentManagementException e) {
+                errors.add(describe(student) + ": " + e.getMessage());
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Classify validated rows against the stored students and write them
+     *
+     * @param valid rows that passed validation, in file order
+     * @param mode how rows with an existing ID are handled
+     * @param report receives the outcome of every row
+     * @param batchSize rows per batch write
+     */
+    void apply(List<Student> valid, ImportMode mode, ImportReport report, int batchSize) {
+        Set<String> existingIds = findExistingIds(valid);
+
+        // Keyed by ID so repeated IDs within the file collapse to one write
+        Map<String, Student> inserts = new LinkedHashMap<>();
+        Map<String, Student> updates = new LinkedHashMap<>();
+
+        for (Student student : valid) {
+            String id = student.getId();
+            boolean stored = existingIds.contains(id);
+
+            if (mode == ImportMode.INSERT_ONLY) {
+                if (stored || inserts.containsKey(id)) {
+                    report.addSkipped(1);
+                } else {
+                    inserts.put(id, student);
+                }
+            } else if (stored) {
+                // The last row for an ID wins
+                if (updates.put(id, student) != null) {
+                    report.addSkipped(1);
+                }
+            } else if (inserts.put(id, student) != null) {
+                report.addSkipped(1);
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            applyResult(studentRepository.addStudents(inserts.values(), batchSize), report);
+        }
+        if (!updates.isEmpty()) {
+            applyResult(studentRepository.updateStudents(updates.values(), batchSize), report);
+        }
+    }
+
+    // Find which of the rows' IDs are stored with one bulk lookup of the IDs the filter cannot rule out
+    private Set<String> findExistingIds(List<Student> students) {
+        StudentIdFilter filter = idFilter.get();
+        Set<String> candidates = new HashSet<>();
+        for (Student student : students) {
+            if (filter.mightExist(student.getId())) {
+                candidates.add(student.getId());
+            }
+        }
+
+        Set<String> existing = studentRepository.findExistingIds(candidates);
+
+        for (int i = existing.size(); i < candidates.size(); i++) {
+            filter.recordFalsePositive();
+        }
+        LoggerUtil.debug("ImportReconciler", (students.size() - candidates.size()) + " IDs ruled out by the filter, "
+                + candidates.size() + " checked, " + existing.size() + " stored");
+        return existing;
+    }
+
+    // Fold per-row batch outcomes into the report
+    private void applyResult(BatchResult result, ImportReport report) {
+        report.addInserted(result.getInserted());
+        report.addUpdated(result.getUpdated());
+        // Rows another writer inserted or deleted since the IDs were loaded
+        report.addSkipped(result.getDuplicates() + result.getNotFound());
+
+        for (BatchResult.RowResult row : result.getRows()) {
+            if (row.getStatus() == WriteStatus.FAILED) {
+                report.addFailed(row.getStudentId() + ": " + row.getMessage());
+            } else if (row.getStatus() == WriteStatus.DUPLICATE || row.getStatus() == WriteStatus.NOT_FOUND) {
+                // Our view of this ID was stale, so drop whatever the cache holds for it
+                studentCache.invalidate(row.getStudentId());
+            }
+        }
+    }
+
+    private String describe(Student student) {
+        return student == null ? "<null>" : "Row with ID '" + student.getId() + "'";
+    }
+}
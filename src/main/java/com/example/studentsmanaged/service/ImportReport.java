@@ -0,0 +1,108 @@
+package com.example.studentsmanaged.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary of a CSV import or backup restore
+ */
+public class ImportReport {
+    // Only the first errors are kept so a bad file cannot fill the heap
+    private static final int MAX_ERRORS = 100;
+
+    private int totalRows;
+    private int inserted;
+    private int updated;
+    private int skipped;
+    private int invalid;
+    private int failed;
+    private long elapsedMillis;
+    private final List<String> errors = new ArrayList<>();
+
+    void addRows(int rows) {
+        totalRows += rows;
+    }
+
+    void addInserted(int count) {
+        inserted += count;
+    }
+
+    void addUpdated(int count) {
+        updated += count;
+    }
+
+    void addSkipped(int count) {
+        skipped += count;
+    }
+
+    void addInvalid(String error) {
+        invalid++;
+        addError(error);
+    }
+
+    void addFailed(String error) {
+        failed++;
+        addError(error);
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Record a problem that is not tied to one row, such as a read error
+    void addError(String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getInvalid() {
+        return invalid;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // The first error messages, in row order
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    // Number of rows written to the database
+    public int getApplied() {
+        return inserted + updated;
+    }
+
+    // One-line summary for the UI
+    public String getSummary() {
+        return String.format("%d rows: %d inserted, %d updated, %d skipped, %d invalid, %d failed (%d ms)",
+                totalRows, inserted, updated, skipped, invalid, failed, elapsedMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" + getSummary() + '}';
+    }
+}
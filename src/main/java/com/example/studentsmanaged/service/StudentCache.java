@@ -0,0 +1,198 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.models.Student;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Size-bounded LRU cache of students keyed by ID.
+ * IDs known not to exist are cached as negative entries so repeated misses do not
+ * reach the database. Students are copied on the way in and out, so callers can never
+ * change a cached entry by mutating the object they hold.
+ */
+public class StudentCache {
+    // Marker stored for IDs known to be absent
+    private static final Student ABSENT = new Student();
+
+    private final int capacity;
+    private final LinkedHashMap<String, Student> entries;
+
+    // Bumped on every write so a load that raced with a write is not cached
+    private long writeStamp;
+
+    // Metrics
+    private long hits;
+    private long negativeHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Create a cache
+     *
+     * @param capacity the maximum number of entries, positive and negative
+     */
+    public StudentCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Student> eldest) {
+                if (size() > StudentCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a student, loading and caching it on a miss
+     *
+     * @param id the student ID
+     * @param loader loads the student from storage, returning null if it does not exist
+     * @return a copy of the student, or null if it does not exist
+     */
+    public Student get(String id, Function<String, Student> loader) {
+        long stamp;
+        synchronized (this) {
+            Student cached = entries.get(id);
+            if (cached == ABSENT) {
+                negativeHits++;
+                return null;
+            }
+            if (cached != null) {
+                hits++;
+                return new Student(cached);
+            }
+            misses++;
+            stamp = writeStamp;
+        }
+
+        // Load outside the lock so slow lookups do not block other readers
+        Student loaded = loader.apply(id);
+
+        synchronized (this) {
+            if (stamp == writeStamp) {
+                entries.put(id, loaded != null ? new Student(loaded) : ABSENT);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Cache a student after it has been written
+     *
+     * @param student the stored student
+     */
+    public synchronized void put(Student student) {
+        writeStamp++;
+        entries.put(student.getId(), new Student(student));
+    }
+
+    /**
+     * Record that an ID no longer exists, after a delete
+     *
+     * @param id the deleted student's ID
+     */
+    public synchronized void putAbsent(String id) {
+        writeStamp++;
+        entries.put(id, ABSENT);
+    }
+
+    /**
+     * Forget whatever is cached for an ID
+     *
+     * @param id the student ID
+     */
+    public synchronized void invalidate(String id) {
+        writeStamp++;
+        entries.remove(id);
+    }
+
+    /**
+     * Forget every entry
+     */
+    public synchronized void invalidateAll() {
+        writeStamp++;
+        entries.clear();
+    }
+
+    /**
+     * Get a snapshot of the cache metrics
+     *
+     * @return the current cache statistics
+     */
+    public synchronized Stats getStats() {
+        return new Stats(entries.size(), capacity, hits, negativeHits, misses, evictions);
+    }
+
+    /**
+     * Point-in-time cache metrics
+     */
+    public static class Stats {
+        private final int size;
+        private final int capacity;
+        private final long hits;
+        private final long negativeHits;
+        private final long misses;
+        private final long evictions;
+
+        public Stats(int size, int capacity, long hits, long negativeHits, long misses, long evictions) {
+            this.size = size;
+            this.capacity = capacity;
+            this.hits = hits;
+            this.negativeHits = negativeHits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        // Lookups answered by a cached "does not exist" entry
+        public long getNegativeHits() {
+            return negativeHits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        // Fraction of lookups answered without the database, counting negative hits
+        public double getHitRatio() {
+            long total = hits + negativeHits + misses;
+            return total == 0 ? 0.0 : (hits + negativeHits) / (double) total;
+        }
+
+        @Override
+        public String toString() {
+            return "StudentCache.Stats{" +
+                    "size=" + size +
+                    ", capacity=" + capacity +
+                    ", hits=" + hits +
+                    ", negativeHits=" + negativeHits +
+                    ", misses=" + misses +
+                    ", evictions=" + evictions +
+                    ", hitRatio=" + String.format("%.3f", getHitRatio()) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.models.Student;
+
+/**
+ * A committed change to one student, published by {@link StudentService}
+ */
+public class StudentChangeEvent {
+
+    /**
+     * Kind of change
+     */
+    public enum Type {
+        INSERTED,
+        // Also used by saves, which may have created the student
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final String studentId;
+    private final Student student;
+
+    private StudentChangeEvent(Type type, String studentId, Student student) {
+        this.type = type;
+        this.studentId = studentId;
+        this.student = student;
+    }
+
+    static StudentChangeEvent inserted(Student student) {
+        return new StudentChangeEvent(Type.INSERTED, student.getId(), new Student(student));
+    }
+
+    static StudentChangeEvent updated(Student student) {
+        return new StudentChangeEvent(Type.UPDATED, student.getId(), new Student(student));
+    }
+
+    static StudentChangeEvent deleted(String studentId) {
+        return new StudentChangeEvent(Type.DELETED, studentId, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    // The stored student after the change, or null for deletes. Each subscriber gets
+    // the same instance, so treat it as read-only and copy it before editing.
+    public Student getStudent() {
+        return student;
+    }
+
+    @Override
+    public String toString() {
+        return "StudentChangeEvent{" + type + " " + studentId + '}';
+    }
+}
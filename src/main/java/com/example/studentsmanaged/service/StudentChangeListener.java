@@ -0,0 +1,17 @@
+package com.example.studentsmanaged.service;
+
+import java.util.List;
+
+/**
+ * Receives committed student changes from {@link StudentService}.
+ * Called on the thread that committed the write, so implementations must be quick
+ * and hand UI work to the FX thread themselves.
+ */
+@FunctionalInterface
+public interface StudentChangeListener {
+
+    /**
+     * @param events the changes, in commit order
+     */
+    void onStudentsChanged(List<StudentChangeEvent> events);
+}
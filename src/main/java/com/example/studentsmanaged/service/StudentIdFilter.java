@@ -0,0 +1,175 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.database.StudentRepository;
+import com.example.studentsmanaged.util.BloomFilter;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Membership sketch of stored student IDs.
+ * An ID the filter has never seen is definitely not stored, so existence checks and
+ * import classification can skip the database for it. Only writes made through
+ * {@link StudentService} are added; deleted IDs stay in the filter until it is
+ * rebuilt, which raises the false positive rate but never hides a stored ID.
+ */
+public class StudentIdFilter {
+    // Target false positive rate, overridable with -Dsms.idFilter.fpp
+    private static final double FALSE_POSITIVE_RATE =
+            Double.parseDouble(System.getProperty("sms.idFilter.fpp", "0.01"));
+
+    // Smallest capacity a filter is sized for, overridable with -Dsms.idFilter.minCapacity
+    private static final int MIN_CAPACITY = Integer.getInteger("sms.idFilter.minCapacity", 10_000);
+
+    private final BloomFilter filter;
+
+    // Metrics
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong definiteAbsent = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private StudentIdFilter(BloomFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Build a filter holding every stored ID, with room for the table to double
+     *
+     * @param studentRepository the source of the IDs
+     * @return the populated filter
+     */
+    public static StudentIdFilter load(StudentRepository studentRepository) {
+        Set<String> ids = studentRepository.getAllStudentIds();
+        StudentIdFilter idFilter = new StudentIdFilter(
+                new BloomFilter(Math.max(MIN_CAPACITY, 2L * ids.size()), FALSE_POSITIVE_RATE));
+        for (String id : ids) {
+            idFilter.filter.put(id);
+        }
+        return idFilter;
+    }
+
+    /**
+     * Check whether an ID may be stored
+     *
+     * @param id the student ID
+     * @return false if the ID is definitely not stored
+     */
+    public boolean mightExist(String id) {
+        probes.incrementAndGet();
+        if (filter.mightContain(id)) {
+            return true;
+        }
+        definiteAbsent.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Record that an ID the filter reported as possibly stored turned out not to be
+     */
+    public void recordFalsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    /**
+     * Add a stored ID
+     *
+     * @param id the student ID
+     */
+    public void add(String id) {
+        filter.put(id);
+    }
+
+    /**
+     * Check whether the filter holds more IDs than it was sized for and should be rebuilt
+     *
+     * @return true if saturated
+     */
+    public boolean isSaturated() {
+        return filter.isSaturated();
+    }
+
+    /**
+     * Get a snapshot of the filter metrics
+     *
+     * @return the current filter statistics
+     */
+    public Stats getStats() {
+        return new Stats(filter.getBitCount(), filter.getHashCount(), filter.getInsertions(),
+                filter.getExpectedFalsePositiveRate(), probes.get(), definiteAbsent.get(), falsePositives.get());
+    }
+
+    /**
+     * Point-in-time filter metrics
+     */
+    public static class Stats {
+        private final long bitCount;
+        private final int hashCount;
+        private final long insertions;
+        private final double expectedFalsePositiveRate;
+        private final long probes;
+        private final long definiteAbsent;
+        private final long falsePositives;
+
+        public Stats(long bitCount, int hashCount, long insertions, double expectedFalsePositiveRate,
+                     long probes, long definiteAbsent, long falsePositives) {
+            this.bitCount = bitCount;
+            this.hashCount = hashCount;
+            this.insertions = insertions;
+            this.expectedFalsePositiveRate = expectedFalsePositiveRate;
+            this.probes = probes;
+            this.definiteAbsent = definiteAbsent;
+            this.falsePositives = falsePositives;
+        }
+
+        public long getBitCount() {
+            return bitCount;
+        }
+
+        public int getHashCount() {
+            return hashCount;
+        }
+
+        public long getInsertions() {
+            return insertions;
+        }
+
+        // Rate implied by the bits set so far
+        public double getExpectedFalsePositiveRate() {
+            return expectedFalsePositiveRate;
+        }
+
+        public long getProbes() {
+            return probes;
+        }
+
+        // Probes answered without the database
+        public long getDefiniteAbsent() {
+            return definiteAbsent;
+        }
+
+        // Possibly-present answers that storage then contradicted
+        public long getFalsePositives() {
+            return falsePositives;
+        }
+
+        // Fraction of absent IDs the filter failed to rule out, as observed
+        public double getObservedFalsePositiveRate() {
+            long absent = definiteAbsent + falsePositives;
+            return absent == 0 ? 0.0 : falsePositives / (double) absent;
+        }
+
+        @Override
+        public String toString() {
+            return "StudentIdFilter.Stats{" +
+                    "bits=" + bitCount +
+                    ", hashes=" + hashCount +
+                    ", insertions=" + insertions +
+                    ", expectedFpp=" + String.format("%.5f", expectedFalsePositiveRate) +
+                    ", probes=" + probes +
+                    ", definiteAbsent=" + definiteAbsent +
+                    ", falsePositives=" + falsePositives +
+                    ", observedFpp=" + String.format("%.5f", getObservedFalsePositiveRate()) +
+                    '}';
+        }
+    }
+}
@@ -1,85 +1,202 @@
 package com.example.studentsmanaged.service;
 
-import com.example.studentsmanaged.database.StudentDAO;
+import com.example.studentsmanaged.database.CommitListener;
+import com.example.studentsmanaged.database.StudentCriteria;
+import com.example.studentsmanaged.database.StorageEngine;
+import com.example.studentsmanaged.database.StudentRepository;
+import com.example.studentsmanaged.database.WriteStatus;
+import com.example.studentsmanaged.models.CourseStatistics;
 import com.example.studentsmanaged.models.Student;
 import com.example.studentsmanaged.util.FileHandler;
+import com.example.studentsmanaged.util.LoggerUtil;
+import com.example.studentsmanaged.util.SnapshotFile;
 import com.example.studentsmanaged.util.StudentManagementException;
 import com.example.studentsmanaged.util.ThreadUtil;
 import com.example.studentsmanaged.util.ValidationUtil;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class StudentService {
-    private final StudentDAO studentDAO;
+    // Cached students (including known-absent IDs), overridable with -Dsms.cache.size
+    private static final int CACHE_SIZE = Integer.getInteger("sms.cache.size", 5000);
+
+    // Whether backup blocks are deflated, enabled with -Dsms.backup.compress=true
+    private static final boolean BACKUP_COMPRESS = Boolean.getBoolean("sms.backup.compress");
+
+    // Longest wait for running file tasks at shutdown, overridable with -Dsms.shutdown.timeoutSeconds
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = Long.getLong("sms.shutdown.timeoutSeconds", 30L);
+
+    private final StudentRepository studentRepository;
     private final ExecutorService executorService;
+    private final ImportReconciler importReconciler;
+    private final CsvImportPipeline importPipeline;
+    private final StudentCache studentCache;
+
+    // Guards updating and publishing the in-memory views below; full loads run outside it
+    private final Object derivedStateLock = new Object();
+
+    // Held while a view is loaded, so concurrent first uses wait for one load
+    private final Object snapshotLoadLock = new Object();
+    private final Object gradeColumnsLoadLock = new Object();
+    private final Object gradeStatisticsLoadLock = new Object();
+    private final Object idFilterLoadLock = new Object();
+
+    // Changes published while each in-progress load runs, guarded by derivedStateLock
+    private final List<List<StudentChangeEvent>> pendingLoads = new ArrayList<>();
 
-    // Constructor
+    // Columnar analytics copy, built on first use and kept current by change events
+    private volatile GradeColumnStore gradeColumns;
+
+    // Per-course grade histograms, built on first use and kept current by change events
+    private volatile GradeStatisticsEngine gradeStatistics;
+
+    // Sketch of stored IDs, loaded at startup and kept current by change events
+    private volatile StudentIdFilter idFilter;
+
+    // Versioned copy of every student, built on first use and swapped on each commit
+    private final AtomicReference<StudentSnapshot> snapshot = new AtomicReference<>();
+
+    // Subscribers to committed changes
+    private final List<StudentChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    // Constructor using the storage engine configured with -Dsms.storage
     public StudentService() {
-        this.studentDAO = new StudentDAO();
+        this(StorageEngine.fromSystemProperties().create());
+    }
+
+    // Constructor for a specific storage backend
+    public StudentService(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+        this.studentCache = new StudentCache(CACHE_SIZE);
+        this.idFilter = StudentIdFilter.load(studentRepository);
+        this.importReconciler = new ImportReconciler(studentRepository, studentCache, this::idFilter);
+        this.importPipeline = new CsvImportPipeline(importReconciler);
         // Use the thread utility for file operations
         this.executorService = ThreadUtil.getFileExecutor();
+        // Every committed write, including imports, is published from the backend's
+        // serialized commit path, so events reach subscribers in commit order
+        studentRepository.setCommitListener(this::onCommitted);
     }
 
     // Validate student data
     private void validateStudent(Student student) throws StudentManagementException {
-        if (student == null) {
-            throw StudentManagementException.validationError("Student cannot be null");
-        }
-
         // Use the validation utility methods
-        ValidationUtil.validateStudentId(student.getId());
-        ValidationUtil.validateName(student.getName());
-        ValidationUtil.validateCourse(student.getCourse());
-        ValidationUtil.validateGrade(student.getGrade());
+        ValidationUtil.validateStudent(student);
     }
 
     // Add a student
     public void addStudent(Student student) throws StudentManagementException {
-        validateStudent(student);
+        await(addStudentAsync(student));
+    }
 
-        if (studentDAO.studentExists(student.getId())) {
-            throw StudentManagementException.duplicateIdError(student.getId());
+    // Queue a student insert on the database writer
+    public CompletableFuture<Void> addStudentAsync(Student student) {
+        try {
+            validateStudent(student);
+        } catch (StudentManagementException e) {
+            return CompletableFuture.failedFuture(e);
         }
 
-        boolean success = studentDAO.addStudent(student);
-
-        if (!success) {
-            throw StudentManagementException.databaseError("Failed to add student");
-        }
+        return studentRepository.addStudentAsync(student)
+                .thenApply(status -> completeWrite(status, WriteStatus.INSERTED, student.getId(), "add"));
     }
 
     // Update a student
     public void updateStudent(Student student) throws StudentManagementException {
-        validateStudent(student);
+        await(updateStudentAsync(student));
+    }
 
-        if (!studentDAO.studentExists(student.getId())) {
-            throw StudentManagementException.notFoundError(student.getId());
+    // Queue a student update on the database writer
+    public CompletableFuture<Void> updateStudentAsync(Student student) {
+        try {
+            validateStudent(student);
+        } catch (StudentManagementException e) {
+            return CompletableFuture.failedFuture(e);
         }
 
-        boolean success = studentDAO.updateStudent(student);
+        return studentRepository.updateStudentAsync(student)
+                .thenApply(status -> completeWrite(status, WriteStatus.UPDATED, student.getId(), "update"));
+    }
+
+    // Add a student, or replace the existing one with the same ID
+    public void saveStudent(Student student) throws StudentManagementException {
+        await(saveStudentAsync(student));
+    }
 
-        if (!success) {
-            throw StudentManagementException.databaseError("Failed to update student");
+    // Queue a student upsert on the database writer
+    public CompletableFuture<Void> saveStudentAsync(Student student) {
+        try {
+            validateStudent(student);
+        } catch (StudentManagementException e) {
+            return CompletableFuture.failedFuture(e);
         }
+
+        return studentRepository.upsertStudentAsync(student)
+                .thenApply(status -> completeWrite(status, WriteStatus.UPDATED, student.getId(), "save"));
     }
 
     // Delete a student
     public void deleteStudent(String id) throws StudentManagementException {
+        await(deleteStudentAsync(id));
+    }
+
+    // Queue a student delete on the database writer
+    public CompletableFuture<Void> deleteStudentAsync(String id) {
         if (id == null || id.trim().isEmpty()) {
-            throw StudentManagementException.validationError("Student ID cannot be empty");
+            return CompletableFuture.failedFuture(
+                    StudentManagementException.validationError("Student ID cannot be empty"));
         }
 
-        if (!studentDAO.studentExists(id)) {
-            throw StudentManagementException.notFoundError(id);
+        return studentRepository.deleteStudentAsync(id)
+                .thenApply(status -> completeWrite(status, WriteStatus.DELETED, id, "delete"));
+    }
+
+    // Map a failed write to the matching exception wrapped for the future chain.
+    // Successful writes were already published by the commit listener.
+    private Void completeWrite(WriteStatus status, WriteStatus expected, String id, String action) {
+        if (status == expected) {
+            return null;
         }
 
-        boolean success = studentDAO.deleteStudent(id);
+        // The outcome tells us the cached view of this ID may be wrong
+        studentCache.invalidate(id);
 
-        if (!success) {
-            throw StudentManagementException.databaseError("Failed to delete student");
+        if (status == WriteStatus.DUPLICATE) {
+            throw new CompletionException(StudentManagementException.duplicateIdError(id));
+        }
+        if (status == WriteStatus.NOT_FOUND) {
+            throw new CompletionException(StudentManagementException.notFoundError(id));
+        }
+        throw new CompletionException(StudentManagementException.databaseError("Failed to " + action + " student"));
+    }
+
+    // Wait for a queued write and rethrow its failure as a StudentManagementException
+    private static void await(CompletableFuture<Void> future) throws StudentManagementException {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof StudentManagementException) {
+                throw (StudentManagementException) cause;
+            }
+            throw new StudentManagementException("Database error: " + cause.getMessage(), cause,
+                    StudentManagementException.ErrorType.DATABASE_ERROR);
         }
     }
 
@@ -89,7 +206,7 @@ public class StudentService {
             throw StudentManagementException.validationError("Student ID cannot be empty");
         }
 
-        Student student = studentDAO.getStudentById(id);
+        Student student = lookup(id);
 
         if (student == null) {
             throw StudentManagementException.notFoundError(id);
@@ -98,15 +215,357 @@ public class StudentService {
         return student;
     }
 
+    // Check whether a student ID exists, answering from the ID filter or cache when possible
+    public boolean studentExists(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+        return lookup(id) != null;
+    }
+
+    // IDs the filter rules out never reach the cache or storage
+    private Student lookup(String id) {
+        StudentIdFilter filter = idFilter();
+        if (!filter.mightExist(id)) {
+            return null;
+        }
+        Student student = studentCache.get(id, studentRepository::getStudentById);
+        if (student == null) {
+            filter.recordFalsePositive();
+        }
+        return student;
+    }
+
+    // Get the ID filter, rebuilding it once it holds more IDs than it was sized for
+    private StudentIdFilter idFilter() {
+        StudentIdFilter current = idFilter;
+        if (!current.isSaturated()) {
+            return current;
+        }
+        return loadDerivedView(idFilterLoadLock,
+                () -> idFilter.isSaturated() ? null : idFilter,
+                () -> {
+                    LoggerUtil.info("StudentService", "Rebuilding saturated ID filter: " + idFilter.getStats());
+                    return StudentIdFilter.load(studentRepository);
+                },
+                (filter, events) -> {
+                    addIds(filter, events);
+                    return filter;
+                },
+                filter -> idFilter = filter);
+    }
+
+    // Get student cache metrics
+    public StudentCache.Stats getCacheStats() {
+        return studentCache.getStats();
+    }
+
+    // Get ID filter metrics, including its observed false positive rate
+    public StudentIdFilter.Stats getIdFilterStats() {
+        return idFilter.getStats();
+    }
+
     // Get all students
     public List<Student> getAllStudents() {
-        return studentDAO.getAllStudents();
+        return studentRepository.getAllStudents();
+    }
+
+    // Stream all students from a database cursor; close the stream when done
+    public Stream<Student> streamAllStudents() {
+        return studentRepository.streamAllStudents();
+    }
+
+    // Get the page of students that follows afterId (null for the first page)
+    public List<Student> getStudentsPage(String afterId, int limit) throws StudentManagementException {
+        if (limit < 1) {
+            throw StudentManagementException.validationError("Page size must be at least 1");
+        }
+        return studentRepository.getStudentsPage(afterId, limit);
+    }
+
+    // Get all students in a course
+    public List<Student> findByCourse(String course) throws StudentManagementException {
+        ValidationUtil.validateCourse(course);
+        return studentRepository.findByCourse(course);
+    }
+
+    // Get all students whose grade lies in [minGrade, maxGrade]
+    public List<Student> findByGradeRange(double minGrade, double maxGrade) throws StudentManagementException {
+        ValidationUtil.validateGrade(minGrade);
+        ValidationUtil.validateGrade(maxGrade);
+        if (minGrade > maxGrade) {
+            throw StudentManagementException.validationError("Minimum grade cannot exceed maximum grade");
+        }
+        return studentRepository.findByGradeRange(minGrade, maxGrade);
+    }
+
+    // Get all students whose name starts with the prefix
+    public List<Student> findByNamePrefix(String prefix) throws StudentManagementException {
+        ValidationUtil.validateRequiredString(prefix, "Name prefix");
+        return studentRepository.findByNamePrefix(prefix);
+    }
+
+    // Subscribe to committed inserts, updates and deletes, including those made by imports
+    public void addChangeListener(StudentChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    // Stop receiving change events
+    public void removeChangeListener(StudentChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    // Turn changes reported by the repository into events
+    private void onCommitted(List<CommitListener.Change> changes) {
+        List<StudentChangeEvent> events = new ArrayList<>(changes.size());
+        for (CommitListener.Change change : changes) {
+            switch (change.getStatus()) {
+                case INSERTED:
+                    events.add(StudentChangeEvent.inserted(change.getStudent()));
+                    break;
+                case UPDATED:
+                    events.add(StudentChangeEvent.updated(change.getStudent()));
+                    break;
+                default:
+                    events.add(StudentChangeEvent.deleted(change.getStudentId()));
+                    break;
+            }
+        }
+        publishChanges(events);
+    }
+
+    // Apply committed changes to the cache and analytics columns, then notify subscribers.
+    // The derived state is updated first so a subscriber that queries back sees the change.
+    private void publishChanges(List<StudentChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        for (StudentChangeEvent event : events) {
+            if (event.getType() == StudentChangeEvent.Type.DELETED) {
+                studentCache.putAbsent(event.getStudentId());
+            } else {
+                studentCache.put(event.getStudent());
+            }
+        }
+
+        synchronized (derivedStateLock) {
+            addIds(idFilter, events);
+
+            StudentSnapshot current = snapshot.get();
+            if (current != null) {
+                snapshot.set(current.apply(events));
+            }
+            if (gradeStatistics != null) {
+                gradeStatistics.apply(events);
+            }
+            if (gradeColumns != null) {
+                applyToColumns(gradeColumns, events);
+            }
+            // Views still loading replay these once their scan finishes
+            for (List<StudentChangeEvent> pending : pendingLoads) {
+                pending.addAll(events);
+            }
+        }
+
+        for (StudentChangeListener listener : changeListeners) {
+            try {
+                listener.onStudentsChanged(events);
+            } catch (RuntimeException e) {
+                // One faulty subscriber must not stop the others or fail the write
+                LoggerUtil.error("StudentService", "Change listener failed", e);
+            }
+        }
+    }
+
+    // Load a view with a full scan outside derivedStateLock, so commits are not held up
+    // behind the scan. Changes published meanwhile are buffered and replayed onto the new
+    // view under the lock just before it is published. Replaying a change the scan already
+    // saw is harmless, since every change carries the student's whole new state.
+    private <T> T loadDerivedView(Object loadLock, Supplier<T> published, Supplier<T> load,
+                                  BiFunction<T, List<StudentChangeEvent>, T> replay, Consumer<T> publish) {
+        synchronized (loadLock) {
+            T current = published.get();
+            if (current != null) {
+                return current;
+            }
+
+            List<StudentChangeEvent> buffered = new ArrayList<>();
+            synchronized (derivedStateLock) {
+                pendingLoads.add(buffered);
+            }
+            try {
+                T loaded = load.get();
+                synchronized (derivedStateLock) {
+                    if (!buffered.isEmpty()) {
+                        loaded = replay.apply(loaded, buffered);
+                    }
+                    publish.accept(loaded);
+                    return loaded;
+                }
+            } finally {
+                synchronized (derivedStateLock) {
+                    // By identity; another load's buffer may hold equal events
+                    pendingLoads.removeIf(pending -> pending == buffered);
+                }
+            }
+        }
+    }
+
+    private static void addIds(StudentIdFilter filter, List<StudentChangeEvent> events) {
+        for (StudentChangeEvent event : events) {
+            if (event.getType() != StudentChangeEvent.Type.DELETED) {
+                filter.add(event.getStudentId());
+            }
+        }
+    }
+
+    private static GradeColumnStore applyToColumns(GradeColumnStore columns, List<StudentChangeEvent> events) {
+        for (StudentChangeEvent event : events) {
+            if (event.getType() == StudentChangeEvent.Type.DELETED) {
+                columns.remove(event.getStudentId());
+            } else {
+                columns.upsert(event.getStudent());
+            }
+        }
+        return columns;
+    }
+
+    // Get a consistent view of every student without touching the database.
+    // Loaded on first use; afterwards each commit swaps in a new version.
+    public StudentSnapshot getSnapshot() {
+        StudentSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        return loadDerivedView(snapshotLoadLock, snapshot::get,
+                () -> StudentSnapshot.of(studentRepository.getAllStudents()),
+                StudentSnapshot::apply, snapshot::set);
+    }
+
+    // Get the columnar analytics store, loading it in one pass on first use
+    public GradeColumnStore getGradeColumns() {
+        GradeColumnStore current = gradeColumns;
+        if (current != null) {
+            return current;
+        }
+        return loadDerivedView(gradeColumnsLoadLock, () -> gradeColumns,
+                () -> GradeColumnStore.load(studentRepository),
+                StudentService::applyToColumns, columns -> gradeColumns = columns);
+    }
+
+    // Get all students matching the criteria
+    public List<Student> findStudents(StudentCriteria criteria) {
+        return studentRepository.findByCriteria(criteria);
+    }
+
+    // Get the grade histograms, loading them from storage in one pass on first use
+    private GradeStatisticsEngine gradeStatistics() {
+        GradeStatisticsEngine current = gradeStatistics;
+        if (current != null) {
+            return current;
+        }
+        return loadDerivedView(gradeStatisticsLoadLock, () -> gradeStatistics,
+                () -> GradeStatisticsEngine.load(studentRepository),
+                (engine, events) -> {
+                    engine.apply(events);
+                    return engine;
+                },
+                engine -> gradeStatistics = engine);
+    }
+
+    // Get grade statistics for every course from the maintained histograms
+    public List<CourseStatistics> getCourseStatistics() {
+        return gradeStatistics().getCourseStatistics();
+    }
+
+    // Get grade statistics for one course from the maintained histograms
+    public CourseStatistics getCourseStatistics(String course) throws StudentManagementException {
+        ValidationUtil.validateCourse(course);
+
+        CourseStatistics stats = gradeStatistics().getCourseStatistics(course);
+
+        if (stats == null) {
+            throw noStudentsInCourse(course);
+        }
+
+        return stats;
+    }
+
+    // Get the grade at a quantile (0 to 1) within one course
+    public double getGradePercentile(String course, double quantile) throws StudentManagementException {
+        ValidationUtil.validateCourse(course);
+        if (quantile < 0 || quantile > 1) {
+            throw StudentManagementException.validationError("Quantile must be between 0 and 1");
+        }
+
+        double grade = gradeStatistics().percentile(course, quantile);
+
+        if (Double.isNaN(grade)) {
+            throw noStudentsInCourse(course);
+        }
+
+        return grade;
+    }
+
+    // Get the n highest-graded students in a course, highest first and ties by ID
+    public List<Student> getTopStudents(String course, int n) throws StudentManagementException {
+        ValidationUtil.validateCourse(course);
+        validateTopCount(n);
+        return studentRepository.getTopStudents(course, n);
+    }
+
+    // Get the n highest-graded students of every course, keyed by course name, for honours lists
+    public Map<String, List<Student>> getTopStudentsPerCourse(int n) throws StudentManagementException {
+        validateTopCount(n);
+        return studentRepository.getTopStudentsPerCourse(n);
+    }
+
+    // Get a student's rank within their course; students with equal grades share a rank
+    public int getCourseRank(String id) throws StudentManagementException {
+        ValidationUtil.validateRequiredString(id, "Student ID");
+
+        int rank = studentRepository.getCourseRank(id);
+
+        if (rank == 0) {
+            throw StudentManagementException.notFoundError(id);
+        }
+
+        return rank;
     }
 
-    // Export students to a CSV file asynchronously
+    // Get the percent of a student's course graded at or below them
+    public double getCoursePercentile(String id) throws StudentManagementException {
+        ValidationUtil.validateRequiredString(id, "Student ID");
+
+        double percentile = studentRepository.getCoursePercentile(id);
+
+        if (Double.isNaN(percentile)) {
+            throw StudentManagementException.notFoundError(id);
+        }
+
+        return percentile;
+    }
+
+    private static void validateTopCount(int n) throws StudentManagementException {
+        if (n < 1) {
+            throw StudentManagementException.validationError("Number of students must be at least 1");
+        }
+    }
+
+    private static StudentManagementException noStudentsInCourse(String course) {
+        return new StudentManagementException("No students enrolled in course: " + course,
+                StudentManagementException.ErrorType.NOT_FOUND);
+    }
+
+    // Export students to a CSV file asynchronously, gzip-compressed when the path ends in .gz
     public Future<Boolean> exportToCSVAsync(String filePath, Consumer<Boolean> callback) {
         return executorService.submit(() -> {
-            boolean result = FileHandler.exportToCSV(getAllStudents(), filePath);
+            boolean result = writeAllStudents("CSV", filePath, students -> {
+                if (!FileHandler.exportToCSV(students, filePath)) {
+                    throw new IOException("CSV export failed");
+                }
+            });
             if (callback != null) {
                 callback.accept(result);
             }
@@ -114,7 +573,96 @@ public class StudentService {
         });
     }
 
-    // Import students from a CSV file asynchronously
+    // Back up every student to a binary snapshot file asynchronously
+    public Future<Boolean> backupAsync(String filePath, Consumer<Boolean> callback) {
+        return executorService.submit(() -> {
+            boolean result = writeAllStudents("backup", filePath,
+                    students -> SnapshotFile.write(students, Path.of(filePath), BACKUP_COMPRESS));
+            if (callback != null) {
+                callback.accept(result);
+            }
+            return result;
+        });
+    }
+
+    // Restore students from a binary snapshot file asynchronously. Each block is validated
+    // and written as one batch, like a chunk of a CSV import.
+    public Future<ImportReport> restoreBackupAsync(String filePath, ImportMode mode, Consumer<ImportReport> callback) {
+        return executorService.submit(() -> {
+            ImportReport report = restoreBackup(filePath, mode);
+            if (callback != null) {
+                callback.accept(report);
+            }
+            return report;
+        });
+    }
+
+    // Write every student to a file. A snapshot that is already loaded is written as it is;
+    // otherwise rows are streamed from the repository cursor, so the write never loads every
+    // student into memory. Either way the file holds one consistent state, even if writes
+    // commit meanwhile.
+    private boolean writeAllStudents(String format, String filePath, StudentWriter writer) {
+        StudentSnapshot loaded = snapshot.get();
+        AtomicLong written = new AtomicLong();
+
+        try (Stream<Student> students = loaded != null ? loaded.stream() : studentRepository.streamAllStudents()) {
+            writer.write(students.peek(student -> written.incrementAndGet()));
+        } catch (IOException | RuntimeException e) {
+            LoggerUtil.error("StudentService", "Error writing " + format + " to " + filePath, e);
+            return false;
+        }
+
+        LoggerUtil.info("StudentService", "Wrote " + format + " of " + written.get() + " students"
+                + (loaded != null ? " at snapshot version " + loaded.getVersion() : "") + " to " + filePath);
+        return true;
+    }
+
+    private ImportReport restoreBackup(String filePath, ImportMode mode) {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+
+        try {
+            SnapshotFile.read(Path.of(filePath), students -> {
+                report.addRows(students.size());
+                List<String> errors = new ArrayList<>();
+                List<Student> valid = importReconciler.validate(students, errors);
+                errors.forEach(report::addInvalid);
+                importReconciler.apply(valid, mode, report, students.size());
+            });
+        } catch (IOException e) {
+            // Blocks before the bad one stay restored
+            LoggerUtil.error("StudentService", "Error reading backup " + filePath, e);
+            report.addError("Error reading " + filePath + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            // A block failed to apply; those before it stay restored and the callback still runs
+            LoggerUtil.error("StudentService", "Error restoring backup " + filePath, e);
+            report.addError("Error restoring " + filePath + ": " + e);
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        LoggerUtil.info("StudentService", "Restore of " + filePath + " finished: " + report.getSummary());
+        return report;
+    }
+
+    // Writes a stream of students to a file
+    @FunctionalInterface
+    private interface StudentWriter {
+        void write(Stream<Student> students) throws IOException;
+    }
+
+    // Import students from a CSV file asynchronously, streaming it through the import
+    // pipeline so memory stays flat however large the file is
+    public Future<ImportReport> importFromCSVAsync(String filePath, ImportMode mode, Consumer<ImportReport> callback) {
+        return executorService.submit(() -> {
+            ImportReport report = importPipeline.importFile(filePath, mode);
+            if (callback != null) {
+                callback.accept(report);
+            }
+            return report;
+        });
+    }
+
+    // Parse students from a CSV file asynchronously without storing them
     public Future<List<Student>> importFromCSVAsync(String filePath, Consumer<List<Student>> callback) {
         return executorService.submit(() -> {
             List<Student> students = FileHandler.importFromCSV(filePath);
@@ -125,8 +673,17 @@ public class StudentService {
         });
     }
 
-    // Shutdown the executor service
+    // Shutdown the executor service and release the storage backend. Running imports and
+    // exports get a bounded time to finish first, so they do not fail on closed storage.
     public void shutdown() {
         executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LoggerUtil.warning("StudentService", "File tasks still running at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        studentRepository.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,213 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.models.Student;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Immutable view of every stored student at one version.
+ * A new snapshot is built from the previous one for each group of committed changes
+ * and swapped in atomically, so readers iterate a consistent set without locks or
+ * database round trips. Students are shared between snapshots and must be treated
+ * as read-only; {@link #get(String)} returns a copy for callers that want to edit.
+ * <p>
+ * Versions share structure: each holds a base map shared with its predecessors and a
+ * small overlay of the changes made since the base was built. A commit copies only
+ * the overlay; once the overlay outgrows the square root of the base it is folded
+ * into a new base, so the full copy is paid once per many commits.
+ */
+public final class StudentSnapshot {
+    // Marks an ID in the overlay that was deleted from the base
+    private static final Student DELETED = new Student();
+
+    // Smallest overlay worth keeping before it is folded into the base
+    private static final int MIN_OVERLAY_SIZE = 64;
+
+    private final long version;
+    private final NavigableMap<String, Student> base;
+    private final NavigableMap<String, Student> overlay;
+    private final int size;
+
+    private StudentSnapshot(long version, NavigableMap<String, Student> base,
+                            NavigableMap<String, Student> overlay, int size) {
+        this.version = version;
+        this.base = base;
+        this.overlay = overlay;
+        this.size = size;
+    }
+
+    /**
+     * Create the first snapshot from a full load
+     *
+     * @param students every stored student
+     * @return a snapshot at version 0
+     */
+    static StudentSnapshot of(Collection<Student> students) {
+        NavigableMap<String, Student> byId = new TreeMap<>();
+        for (Student student : students) {
+            byId.put(student.getId(), student);
+        }
+        return new StudentSnapshot(0L, byId, Collections.emptyNavigableMap(), byId.size());
+    }
+
+    /**
+     * Create the next snapshot with the changes applied; this snapshot is unchanged
+     *
+     * @param events committed changes in commit order
+     * @return a snapshot one version newer
+     */
+    StudentSnapshot apply(List<StudentChangeEvent> events) {
+        NavigableMap<String, Student> next = new TreeMap<>(overlay);
+        int nextSize = size;
+        for (StudentChangeEvent event : events) {
+            String id = event.getStudentId();
+            Student changed = next.get(id);
+            boolean existed = changed != null ? changed != DELETED : base.containsKey(id);
+
+            if (event.getType() == StudentChangeEvent.Type.DELETED) {
+                if (base.containsKey(id)) {
+                    next.put(id, DELETED);
+                } else {
+                    next.remove(id);
+                }
+                if (existed) {
+                    nextSize--;
+                }
+            } else {
+                next.put(id, event.getStudent());
+                if (!existed) {
+                    nextSize++;
+                }
+            }
+        }
+
+        if (next.size() <= Math.max(MIN_OVERLAY_SIZE, (int) Math.sqrt(base.size()))) {
+            return new StudentSnapshot(version + 1, base, next, nextSize);
+        }
+
+        NavigableMap<String, Student> folded = new TreeMap<>(base);
+        for (Map.Entry<String, Student> entry : next.entrySet()) {
+            if (entry.getValue() == DELETED) {
+                folded.remove(entry.getKey());
+            } else {
+                folded.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return new StudentSnapshot(version + 1, folded, Collections.emptyNavigableMap(), nextSize);
+    }
+
+    // Incremented once per group of committed changes
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(String id) {
+        return find(id) != null;
+    }
+
+    // Get a copy of one student, or null if it did not exist at this version
+    public Student get(String id) {
+        Student student = find(id);
+        return student != null ? new Student(student) : null;
+    }
+
+    // Get the students ordered by ID
+    public List<Student> getStudents() {
+        List<Student> students = new ArrayList<>(size);
+        iterator().forEachRemaining(students::add);
+        return Collections.unmodifiableList(students);
+    }
+
+    // Stream the students ordered by ID
+    public Stream<Student> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), size,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    private Student find(String id) {
+        Student changed = overlay.get(id);
+        if (changed != null) {
+            return changed != DELETED ? changed : null;
+        }
+        return base.get(id);
+    }
+
+    // Merge the base and overlay in ID order; an overlay entry replaces or hides the base one
+    private Iterator<Student> iterator() {
+        if (overlay.isEmpty()) {
+            return base.values().iterator();
+        }
+
+        Iterator<Map.Entry<String, Student>> baseEntries = base.entrySet().iterator();
+        Iterator<Map.Entry<String, Student>> overlayEntries = overlay.entrySet().iterator();
+
+        return new Iterator<>() {
+            private Map.Entry<String, Student> nextBase = advance(baseEntries);
+            private Map.Entry<String, Student> nextOverlay = advance(overlayEntries);
+            private Student next = fetch();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Student next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Student current = next;
+                next = fetch();
+                return current;
+            }
+
+            private Student fetch() {
+                while (nextBase != null || nextOverlay != null) {
+                    int order = nextBase == null ? 1
+                            : nextOverlay == null ? -1
+                            : nextBase.getKey().compareTo(nextOverlay.getKey());
+                    Student student;
+                    if (order < 0) {
+                        student = nextBase.getValue();
+                        nextBase = advance(baseEntries);
+                    } else {
+                        if (order == 0) {
+                            nextBase = advance(baseEntries);
+                        }
+                        student = nextOverlay.getValue();
+                        nextOverlay = advance(overlayEntries);
+                    }
+                    if (student != DELETED) {
+                        return student;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private static Map.Entry<String, Student> advance(Iterator<Map.Entry<String, Student>> entries) {
+        return entries.hasNext() ? entries.next() : null;
+    }
+
+    @Override
+    public String toString() {
+        return "StudentSnapshot{version=" + version + ", size=" + size + '}';
+    }
+}
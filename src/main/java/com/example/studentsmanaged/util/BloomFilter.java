@@ -0,0 +1,149 @@
+package com.example.studentsmanaged.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * Answers "definitely absent" or "possibly present" in constant time; a false
+ * "possibly present" happens at roughly the configured rate while the filter holds
+ * no more than its expected number of keys. Keys cannot be removed.
+ */
+public class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final AtomicLong setBits = new AtomicLong();
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * Create a filter sized for a number of keys and false positive rate
+     *
+     * @param expectedInsertions the number of keys the filter is sized for
+     * @param falsePositiveRate the target false positive rate, between 0 and 1
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be at least 1");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+
+        // Optimal sizing: m = -n ln p / (ln 2)^2 bits and k = m/n ln 2 hash functions
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Add a key
+     *
+     * @param key the key
+     * @return true if the filter changed, meaning the key was certainly not present before
+     */
+    public boolean put(String key) {
+        long hash = hash(key);
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1;
+        boolean changed = false;
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+
+            if ((current & mask) == 0) {
+                setBits.incrementAndGet();
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+        return changed;
+    }
+
+    /**
+     * Check a key
+     *
+     * @param key the key
+     * @return false if the key was never added; true if it may have been
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1;
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the false positive rate implied by the bits set so far
+     *
+     * @return the estimated probability that an absent key reads as present
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow((double) setBits.get() / bitCount, hashCount);
+    }
+
+    /**
+     * Check whether more keys were added than the filter was sized for
+     *
+     * @return true once the false positive rate is above its target
+     */
+    public boolean isSaturated() {
+        return insertions.get() > expectedInsertions;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    // Keys that changed the filter; repeated and colliding keys are not counted
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units, finished with the MurmurHash3 mixer
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53a3b5bL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.studentsmanaged.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC 4180 CSV tokenizer.
+ * Fields may be quoted, with doubled quotes for a literal quote and line breaks kept
+ * inside quotes; records end at LF, CRLF or CR. Characters are scanned straight from
+ * a read buffer into one reusable field buffer, so a record allocates nothing until a
+ * field is asked for as a String, and numbers can be read without one.
+ * <p>
+ * Input that breaks the RFC is read leniently rather than rejected: a quote inside an
+ * unquoted field is kept as a character, text after a closing quote is appended to the
+ * field, and a quote left open runs to the end of the input.
+ */
+public class CsvReader implements Closeable {
+    private static final char QUOTE = '"';
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Slots for repeated values and the longest value kept in one
+    private static final int POOL_SIZE = 1024;
+    private static final int MAX_POOLED_LENGTH = 64;
+
+    // Powers of ten that are exact as doubles, for the fast number path
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader reader;
+    private final char delimiter;
+
+    // Characters that end a run of unquoted text, indexed by character
+    private final boolean[] special = new boolean[Character.MAX_VALUE + 1];
+
+    // Input window
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // Every field of the current record, back to back; fieldEnds[i] is where field i stops
+    private char[] fields = new char[256];
+    private int[] fieldEnds = new int[8];
+    private int fieldCount;
+
+    // Recently returned values by hash, so a repeated value such as a course name is one String
+    private final String[] pool = new String[POOL_SIZE];
+
+    // Whether any record so far needed lenient quote handling
+    private boolean irregular;
+
+    private long lineNumber = 1;
+    private long recordLineNumber;
+    private boolean started;
+
+    /**
+     * Create a tokenizer; the reader does not need to be buffered
+     *
+     * @param reader the input
+     * @param delimiter the field separator, such as ',' or ';'
+     */
+    public CsvReader(Reader reader, char delimiter) {
+        if (delimiter == QUOTE || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid CSV delimiter: " + delimiter);
+        }
+        this.reader = reader;
+        this.delimiter = delimiter;
+        special[delimiter] = true;
+        special['\n'] = true;
+        special['\r'] = true;
+        special[QUOTE] = true;
+    }
+
+    /**
+     * Advance to the next record
+     *
+     * @return false at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    public boolean nextRecord() throws IOException {
+        if (!started) {
+            started = true;
+            // Spreadsheet exports often start with a byte order mark
+            if (fill() && buffer[position] == '\uFEFF') {
+                position++;
+            }
+        }
+        if (position == limit && !fill()) {
+            return false;
+        }
+
+        recordLineNumber = lineNumber;
+        fieldCount = 0;
+        int length = 0;
+        boolean quoted = false;
+        boolean atFieldStart = true;
+        // Set after a closing quote, where only a delimiter or record end is regular
+        boolean closed = false;
+
+        while (true) {
+            if (position == limit && !fill()) {
+                // End of input ends the last record, even inside an unterminated quote
+                irregular |= quoted;
+                endField(length);
+                return true;
+            }
+
+            // Copy runs of ordinary characters in bulk; only the character that ends the
+            // run goes through the state machine
+            int run = position;
+            if (quoted) {
+                while (run < limit && buffer[run] != QUOTE && buffer[run] != '\n') {
+                    run++;
+                }
+            } else {
+                while (run < limit && !special[buffer[run]]) {
+                    run++;
+                }
+            }
+            if (run > position) {
+                irregular |= closed;
+                length = append(length, position, run - position);
+                position = run;
+                atFieldStart = false;
+                continue;
+            }
+
+            char c = buffer[position++];
+
+            if (quoted) {
+                if (c == QUOTE) {
+                    if (position == limit && !fill()) {
+                        endField(length);
+                        return true;
+                    }
+                    if (buffer[position] == QUOTE) {
+                        // Escaped quote
+                        position++;
+                        length = append(length, QUOTE);
+                    } else {
+                        quoted = false;
+                        closed = true;
+                    }
+                } else {
+                    // A line break inside quotes
+                    lineNumber++;
+                    length = append(length, c);
+                }
+            } else if (c == delimiter) {
+                endField(length);
+                atFieldStart = true;
+                closed = false;
+                continue;
+            } else if (c == '\n' || c == '\r') {
+                lineNumber++;
+                if (c == '\r' && (position < limit || fill()) && buffer[position] == '\n') {
+                    position++;
+                }
+                endField(length);
+                return true;
+            } else if (c == QUOTE && atFieldStart) {
+                quoted = true;
+            } else {
+                // A quote inside an unquoted field, or after a closing quote
+                irregular = true;
+                length = append(length, c);
+            }
+            atFieldStart = false;
+        }
+    }
+
+    /**
+     * Get the number of fields in the current record
+     *
+     * @return the field count; a blank line has one empty field
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Get a field as a string
+     *
+     * @param index the field index, from 0
+     * @return the unquoted field value
+     */
+    public String getField(int index) {
+        int start = fieldStart(index);
+        return new String(fields, start, fieldEnds[index] - start);
+    }
+
+    /**
+     * Get a field as a string, reusing the String returned for an earlier equal value
+     * when there is one. Meant for columns with few distinct values.
+     *
+     * @param index the field index, from 0
+     * @return the unquoted field value
+     */
+    public String getPooledField(int index) {
+        int start = fieldStart(index);
+        int length = fieldEnds[index] - start;
+        if (length > MAX_POOLED_LENGTH) {
+            return new String(fields, start, length);
+        }
+
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + fields[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (POOL_SIZE - 1);
+
+        String pooled = pool[slot];
+        if (pooled != null && pooled.length() == length && matches(pooled, start)) {
+            return pooled;
+        }
+        String value = new String(fields, start, length);
+        pool[slot] = value;
+        return value;
+    }
+
+    /**
+     * Check whether a field is empty
+     *
+     * @param index the field index, from 0
+     * @return true if the field has no characters
+     */
+    public boolean isEmpty(int index) {
+        return fieldEnds[index] == fieldStart(index);
+    }
+
+    /**
+     * Parse a field as a double without creating a String for plain decimals such as
+     * "87.5". Anything else, such as exponents or very long mantissas, falls back to
+     * Double.parseDouble, so the result is always the correctly rounded value.
+     *
+     * @param index the field index, from 0
+     * @return the value
+     * @throws NumberFormatException if the field is not a number
+     */
+    public double getDouble(int index) {
+        int start = fieldStart(index);
+        int end = fieldEnds[index];
+        while (start < end && fields[start] == ' ') {
+            start++;
+        }
+        while (end > start && fields[end - 1] == ' ') {
+            end--;
+        }
+
+        int i = start;
+        boolean negative = i < end && fields[i] == '-';
+        if (negative) {
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            char c = fields[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+
+        // Exact when the mantissa and the power of ten are both exact doubles, since one
+        // division is then correctly rounded
+        if (i == end && digits > 0 && digits <= 15 && fractionDigits < POWERS_OF_TEN.length) {
+            double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(fields, start, end - start));
+    }
+
+    /**
+     * Check whether any record read so far broke the RFC quoting rules and was read
+     * leniently. In regular input every quote opens or closes a quoted field, so
+     * counting quotes tells whether a position is inside one.
+     *
+     * @return true if lenient handling was needed
+     */
+    public boolean isIrregular() {
+        return irregular;
+    }
+
+    /**
+     * Get the line on which the current record starts, for error messages
+     *
+     * @return the line number, from 1
+     */
+    public long getLineNumber() {
+        return recordLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int fieldStart(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + index + " of " + fieldCount);
+        }
+        return index == 0 ? 0 : fieldEnds[index - 1];
+    }
+
+    private boolean matches(String value, int start) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != fields[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Append buffer[from, from + count) to the field buffer
+    private int append(int length, int from, int count) {
+        if (length + count > fields.length) {
+            fields = Arrays.copyOf(fields, Math.max(fields.length * 2, length + count));
+        }
+        System.arraycopy(buffer, from, fields, length, count);
+        return length + count;
+    }
+
+    private int append(int length, char c) {
+        if (length == fields.length) {
+            fields = Arrays.copyOf(fields, fields.length * 2);
+        }
+        fields[length] = c;
+        return length + 1;
+    }
+
+    private void endField(int length) {
+        if (fieldCount == fieldEnds.length) {
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldEnds.length * 2);
+        }
+        fieldEnds[fieldCount++] = length;
+    }
+
+    // Refill the input window; false at the end of the input
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            position = limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
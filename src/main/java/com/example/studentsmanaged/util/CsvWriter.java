@@ -0,0 +1,222 @@
+package com.example.studentsmanaged.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Streaming CSV writer.
+ * Records are built in one reusable character buffer and handed to the underlying
+ * writer in large blocks. Fields are quoted only when they hold the delimiter, a quote
+ * or a line break, with quotes doubled as RFC 4180 requires. Decimals are formatted by
+ * hand with the same result as String.format("%.Nf") in an English locale.
+ */
+public class CsvWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_DECIMALS = 9;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    // Below this limit a double's rounding error stays well inside the window around a half
+    private static final double MAX_FAST_SCALED = 1e9;
+    private static final double HALF_WINDOW = 1e-6;
+
+    private final Writer out;
+    private final char delimiter;
+    private final String lineSeparator;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int length;
+    private boolean atRecordStart = true;
+
+    /**
+     * Create a writer that ends records with the platform line separator
+     *
+     * @param out the destination; it does not need to be buffered
+     * @param delimiter the field separator
+     */
+    public CsvWriter(Writer out, char delimiter) {
+        this(out, delimiter, System.lineSeparator());
+    }
+
+    /**
+     * Create a writer
+     *
+     * @param out the destination; it does not need to be buffered
+     * @param delimiter the field separator
+     * @param lineSeparator the record terminator, such as "\r\n"
+     */
+    public CsvWriter(Writer out, char delimiter, String lineSeparator) {
+        this.out = out;
+        this.delimiter = delimiter;
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * Write a text field, quoting it if needed
+     *
+     * @param value the field value; null is written as an empty field
+     * @throws IOException if the destination cannot be written
+     */
+    public void writeField(String value) throws IOException {
+        startField();
+        if (value == null) {
+            return;
+        }
+        if (!needsQuotes(value)) {
+            append(value);
+            return;
+        }
+        append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                append('"');
+            }
+            append(c);
+        }
+        append('"');
+    }
+
+    /**
+     * Write a number with a fixed number of decimals, rounding half up like
+     * String.format("%.Nf")
+     *
+     * @param value the number
+     * @param decimals digits after the decimal point, from 0 to 9
+     * @throws IOException if the destination cannot be written
+     */
+    public void writeFixed(double value, int decimals) throws IOException {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Decimals must be between 0 and " + MAX_DECIMALS);
+        }
+        startField();
+
+        double scaled = Math.abs(value) * POWERS_OF_TEN[decimals];
+        if (!(scaled < MAX_FAST_SCALED)) {
+            // Infinite, NaN or too large for the fast path
+            append(slowFixed(value, decimals));
+            return;
+        }
+
+        // The formatter rounds the shortest decimal form of the value, so a product that
+        // lands close to a half could round either way; leave those to BigDecimal
+        double fraction = scaled - Math.floor(scaled);
+        if (Math.abs(fraction - 0.5) < HALF_WINDOW) {
+            append(slowFixed(value, decimals));
+            return;
+        }
+
+        // Negative values that round to zero keep their sign, as with String.format
+        if (isNegative(value)) {
+            append('-');
+        }
+        long units = (long) Math.floor(scaled + 0.5);
+
+        long whole = units / POWERS_OF_TEN[decimals];
+        appendDigits(whole);
+        if (decimals > 0) {
+            append('.');
+            long rest = units % POWERS_OF_TEN[decimals];
+            for (int d = decimals - 1; d >= 0; d--) {
+                append((char) ('0' + rest / POWERS_OF_TEN[d] % 10));
+            }
+        }
+    }
+
+    /**
+     * End the current record
+     *
+     * @throws IOException if the destination cannot be written
+     */
+    public void endRecord() throws IOException {
+        append(lineSeparator);
+        atRecordStart = true;
+    }
+
+    /**
+     * Write out buffered records and flush the destination
+     *
+     * @throws IOException if the destination cannot be written
+     */
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void startField() throws IOException {
+        if (!atRecordStart) {
+            append(delimiter);
+        }
+        atRecordStart = false;
+    }
+
+    private boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String slowFixed(double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return Double.toString(value);
+        }
+        String formatted = new BigDecimal(Double.toString(Math.abs(value)))
+                .setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+        return isNegative(value) ? "-" + formatted : formatted;
+    }
+
+    private static boolean isNegative(double value) {
+        return Math.copySign(1.0, value) < 0;
+    }
+
+    private void appendDigits(long value) throws IOException {
+        if (value >= 10) {
+            appendDigits(value / 10);
+        }
+        append((char) ('0' + value % 10));
+    }
+
+    private void append(String value) throws IOException {
+        int offset = 0;
+        while (offset < value.length()) {
+            if (length == buffer.length) {
+                drain();
+            }
+            int n = Math.min(value.length() - offset, buffer.length - length);
+            value.getChars(offset, offset + n, buffer, length);
+            length += n;
+            offset += n;
+        }
+    }
+
+    private void append(char c) throws IOException {
+        if (length == buffer.length) {
+            drain();
+        }
+        buffer[length++] = c;
+    }
+
+    private void drain() throws IOException {
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+    }
+}
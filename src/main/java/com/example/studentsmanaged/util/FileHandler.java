@@ -1,33 +1,72 @@
 package com.example.studentsmanaged.util;
 
+import com.example.studentsmanaged.models.CourseRegistry;
 import com.example.studentsmanaged.models.Student;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class FileHandler {
+    // Field separator for CSV imports and exports, overridable with -Dsms.csv.delimiter
+    private static final char DELIMITER = System.getProperty("sms.csv.delimiter", ",").charAt(0);
+
+    // Files with this suffix are gzip-compressed on export and decompressed on import
+    public static final String GZIP_SUFFIX = ".gz";
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
 
     // Export students to a CSV file
     public static boolean exportToCSV(List<Student> students, String filePath) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+        return exportToCSV(students.stream(), filePath);
+    }
+
+    // Export a stream of students to a CSV file one row at a time, gzip-compressed when
+    // the path ends in .gz. Memory use does not depend on the number of rows.
+    public static boolean exportToCSV(Stream<Student> students, String filePath) {
+        return exportToCSV(students, filePath, filePath.endsWith(GZIP_SUFFIX));
+    }
+
+    // Export a stream of students to a CSV file one row at a time, optionally gzip-compressed,
+    // with the same delimiter as imports so exported files read back unchanged. Fields
+    // holding the delimiter, a quote or a line break are quoted; grades have two decimals.
+    public static boolean exportToCSV(Stream<Student> students, String filePath, boolean gzip) {
+        try (CsvWriter csv = new CsvWriter(openWriter(filePath, gzip), DELIMITER)) {
             // Write header
-            writer.write("ID,Name,Course,Grade");
-            writer.newLine();
+            csv.writeField("ID");
+            csv.writeField("Name");
+            csv.writeField("Course");
+            csv.writeField("Grade");
+            csv.endRecord();
 
             // Write data
-            for (Student student : students) {
-                writer.write(String.format("%s,%s,%s,%.2f",
-                        student.getId(),
-                        student.getName(),
-                        student.getCourse(),
-                        student.getGrade()));
-                writer.newLine();
+            for (Iterator<Student> it = students.iterator(); it.hasNext(); ) {
+                Student student = it.next();
+                csv.writeField(student.getId());
+                csv.writeField(student.getName());
+                csv.writeField(student.getCourse());
+                csv.writeFixed(student.getGrade(), 2);
+                csv.endRecord();
             }
 
             return true;
@@ -37,43 +76,141 @@ public class FileHandler {
         }
     }
 
+    private static Writer openWriter(String filePath, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(Path.of(filePath));
+        if (gzip) {
+            try {
+                out = new GZIPOutputStream(out, IO_BUFFER_SIZE);
+            } catch (IOException e) {
+                out.close();
+                throw e;
+            }
+        }
+        return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
     // Import students from a CSV file
     public static List<Student> importFromCSV(String filePath) {
         List<Student> students = new ArrayList<>();
+        try (Stream<Student> rows = streamCSV(filePath)) {
+            rows.forEach(students::add);
+        } catch (UncheckedIOException e) {
+            System.err.println("Error importing " + filePath + ": " + e.getCause().getMessage());
+        }
+        return students;
+    }
+
+    // Parse students from a CSV file lazily, one record at a time, using the delimiter
+    // set with -Dsms.csv.delimiter (a comma by default)
+    public static Stream<Student> streamCSV(String filePath) {
+        return streamCSV(filePath, DELIMITER, System.err::println);
+    }
+
+    // Parse students from a CSV file lazily with the configured delimiter, passing one
+    // message per rejected row, with its line number, to errors
+    public static Stream<Student> streamCSV(String filePath, Consumer<String> errors) {
+        return streamCSV(filePath, DELIMITER, errors);
+    }
 
+    // Parse students from a CSV file lazily. Quoted fields may hold delimiters, quotes
+    // and line breaks. The stream holds the file open until it is closed. UncheckedIOException
+    // is thrown if the file is missing or cannot be opened, and by the stream if a read fails.
+    // Rows that are malformed are skipped and described to errors as they are read.
+    public static Stream<Student> streamCSV(String filePath, char delimiter, Consumer<String> errors) {
         File file = new File(filePath);
-        if (!file.exists()) {
-            System.err.println("File does not exist: " + filePath);
-            return students;
+        if (!file.isFile()) {
+            throw new UncheckedIOException(new FileNotFoundException("File does not exist"));
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        CsvReader csv;
+        try {
+            csv = new CsvReader(new InputStreamReader(openInput(file), StandardCharsets.UTF_8), delimiter);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
             // Skip header
-            String line = reader.readLine();
-
-            // Read data
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-
-                if (data.length == 4) {
-                    try {
-                        Student student = new Student();
-                        student.setId(data[0]);
-                        student.setName(data[1]);
-                        student.setCourse(data[2]);
-                        student.setGrade(Double.parseDouble(data[3]));
-
-                        students.add(student);
-                    } catch (NumberFormatException e) {
-                        System.err.println("Error parsing grade: " + e.getMessage());
+            csv.nextRecord();
+        } catch (IOException e) {
+            try {
+                csv.close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw new UncheckedIOException(e);
+        }
+
+        Spliterator<Student> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Student> action) {
+                try {
+                    while (csv.nextRecord()) {
+                        Student student = parseRow(csv, 0, errors);
+                        if (student != null) {
+                            action.accept(student);
+                            return true;
+                        }
                     }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
             }
+        };
 
-            return students;
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                csv.close();
+            } catch (IOException e) {
+                System.err.println("Error closing CSV file: " + e.getMessage());
+            }
+        });
+    }
+
+    private static InputStream openInput(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        if (!file.getName().endsWith(GZIP_SUFFIX)) {
+            return in;
+        }
+        try {
+            return new GZIPInputStream(in, IO_BUFFER_SIZE);
         } catch (IOException e) {
-            System.err.println("Error importing from CSV: " + e.getMessage());
-            return students;
+            in.close();
+            throw e;
+        }
+    }
+
+    // Parse a large CSV file on several threads over memory-mapped ranges, passing each
+    // range's students to the consumer and its rejected rows to errors, in file order
+    public static void readCSVInParallel(String filePath, int parallelism, int rangeBytes,
+                                         ParallelCsvReader.RangeConsumer consumer, Consumer<String> errors)
+            throws IOException, InterruptedException {
+        new ParallelCsvReader(Path.of(filePath), DELIMITER, parallelism, rangeBytes).read(consumer, errors);
+    }
+
+    // Build a student from the current record, or return null if it is blank or malformed.
+    // Problems are reported to errors; lineOffset is added to the reader's line numbers.
+    static Student parseRow(CsvReader csv, long lineOffset, Consumer<String> errors) {
+        if (csv.getFieldCount() == 1 && csv.isEmpty(0)) {
+            return null;
+        }
+        if (csv.getFieldCount() != 4) {
+            errors.accept("Skipping line " + (lineOffset + csv.getLineNumber()) + ": expected 4 fields, found "
+                    + csv.getFieldCount());
+            return null;
+        }
+
+        try {
+            Student student = new Student();
+            student.setId(csv.getField(0));
+            student.setName(csv.getField(1));
+            student.setCourse(CourseRegistry.canonical(csv.getPooledField(2)));
+            student.setGrade(csv.getDouble(3));
+            return student;
+        } catch (NumberFormatException e) {
+            errors.accept("Error parsing grade on line " + (lineOffset + csv.getLineNumber()) + ": " + e.getMessage());
+            return null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,331 @@
+package com.example.studentsmanaged.util;
+
+import com.example.studentsmanaged.models.Student;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Parses one CSV file on several threads.
+ * The file is cut into byte ranges that start on record boundaries; each range is
+ * memory-mapped and parsed on a ForkJoinPool, and the students of each range are
+ * passed on in file order, so the output matches a sequential parse row for row.
+ * At most twice the parallelism ranges are parsed ahead of the consumer.
+ * <p>
+ * Boundaries are found by quote parity. In RFC 4180 input every quote opens or closes
+ * a quoted field (an escaped quote counts twice), so a line feed ends a record exactly
+ * when an even number of quotes precede it; the quotes and line feeds of every block
+ * are counted in parallel first. Stray quotes break that rule, so once a range turns
+ * out to need lenient parsing, the rest of the file is parsed sequentially from that
+ * range's start, which is still exact because everything before it was regular.
+ */
+public class ParallelCsvReader {
+    // Rows passed to the consumer at a time after falling back to sequential parsing
+    private static final int SEQUENTIAL_BATCH = 10_000;
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Receives the students of one range; may block to apply backpressure
+     */
+    @FunctionalInterface
+    public interface RangeConsumer {
+        void accept(List<Student> students) throws InterruptedException;
+    }
+
+    private final Path file;
+    private final char delimiter;
+    private final int parallelism;
+    private final int rangeBytes;
+
+    /**
+     * Create a reader
+     *
+     * @param file the CSV file, with a header line
+     * @param delimiter the field separator
+     * @param parallelism the number of parsing threads
+     * @param rangeBytes the approximate size of each range
+     */
+    public ParallelCsvReader(Path file, char delimiter, int parallelism, int rangeBytes) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        if (rangeBytes < 1 || rangeBytes > 1 << 30) {
+            throw new IllegalArgumentException("Range size must be between 1 byte and 1 GB");
+        }
+        this.file = file;
+        this.delimiter = delimiter;
+        this.parallelism = parallelism;
+        this.rangeBytes = rangeBytes;
+    }
+
+    /**
+     * Parse the file, skipping the header and malformed rows, which are reported on
+     * standard error in file order
+     *
+     * @param consumer receives the students of each range in file order
+     * @throws IOException if the file cannot be read
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public void read(RangeConsumer consumer) throws IOException, InterruptedException {
+        read(consumer, System.err::println);
+    }
+
+    /**
+     * Parse the file, skipping the header and malformed rows
+     *
+     * @param consumer receives the students of each range in file order
+     * @param errors receives one message per malformed row, with its line number, in file
+     *               order on the calling thread; a range's messages come before its students
+     * @throws IOException if the file cannot be read
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public void read(RangeConsumer consumer, Consumer<String> errors) throws IOException, InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int blocks = (int) Math.max(1, (size + rangeBytes - 1) / rangeBytes);
+
+            List<Future<long[]>> counts = new ArrayList<>(blocks);
+            for (int b = 0; b < blocks; b++) {
+                long start = (long) b * rangeBytes;
+                long end = Math.min(size, start + rangeBytes);
+                counts.add(pool.submit(() -> countBlock(channel, start, end)));
+            }
+
+            // Quotes and line feeds before each block give its parity and line offset
+            List<Future<long[]>> boundaries = new ArrayList<>(blocks);
+            long[] linesBefore = new long[blocks];
+            long quotes = 0;
+            long lines = 0;
+            for (int b = 0; b < blocks; b++) {
+                linesBefore[b] = lines;
+                long start = (long) b * rangeBytes;
+                boolean inQuotes = (quotes & 1) == 1;
+                boundaries.add(b == 0 ? null : pool.submit(() -> findBoundary(channel, start, size, inQuotes)));
+                long[] count = await(counts.get(b));
+                quotes += count[0];
+                lines += count[1];
+            }
+
+            // Range r runs from starts[r] to starts[r + 1]; lineOffsets[r] line feeds precede it
+            long[] starts = new long[blocks + 1];
+            long[] lineOffsets = new long[blocks + 1];
+            for (int b = 1; b < blocks; b++) {
+                long[] boundary = await(boundaries.get(b));
+                starts[b] = boundary[0];
+                lineOffsets[b] = linesBefore[b] + boundary[1];
+            }
+            starts[blocks] = size;
+
+            parseRanges(pool, channel, starts, lineOffsets, consumer, errors);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Parse ranges in a sliding window and pass them on in order
+    private void parseRanges(ForkJoinPool pool, FileChannel channel, long[] starts, long[] lineOffsets,
+                             RangeConsumer consumer, Consumer<String> errors) throws IOException, InterruptedException {
+        int ranges = starts.length - 1;
+        Deque<Future<ParsedRange>> window = new ArrayDeque<>();
+        int next = 0;
+
+        for (int r = 0; r < ranges; r++) {
+            while (next < ranges && window.size() < parallelism * 2) {
+                int range = next++;
+                window.add(pool.submit(() -> parseRange(channel, starts[range], starts[range + 1],
+                        lineOffsets[range], range == 0)));
+            }
+
+            ParsedRange parsed = await(window.poll());
+            if (parsed.irregular) {
+                // This range started on a true boundary, but its end and every later one may not
+                for (Future<ParsedRange> pending : window) {
+                    pending.cancel(true);
+                }
+                LoggerUtil.warning("ParallelCsvReader", "Irregular quoting after line " + lineOffsets[r]
+                        + " of " + file + "; parsing the rest of the file sequentially");
+                parseSequentially(channel, starts[r], lineOffsets[r], r == 0, consumer, errors);
+                return;
+            }
+
+            parsed.errors.forEach(errors);
+            if (!parsed.students.isEmpty()) {
+                consumer.accept(parsed.students);
+            }
+        }
+    }
+
+    private ParsedRange parseRange(FileChannel channel, long start, long end, long lineOffset, boolean header)
+            throws IOException {
+        ParsedRange parsed = new ParsedRange();
+        if (start == end) {
+            return parsed;
+        }
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IOException("Quoted field too long to map near line " + lineOffset + " of " + file);
+        }
+
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        try (CsvReader csv = new CsvReader(new InputStreamReader(new ByteBufferInputStream(mapped),
+                StandardCharsets.UTF_8), delimiter)) {
+            if (header) {
+                csv.nextRecord();
+            }
+            while (csv.nextRecord()) {
+                Student student = FileHandler.parseRow(csv, lineOffset, parsed.errors::add);
+                if (student != null) {
+                    parsed.students.add(student);
+                }
+            }
+            parsed.irregular = csv.isIrregular();
+        }
+        return parsed;
+    }
+
+    private void parseSequentially(FileChannel channel, long start, long lineOffset, boolean header,
+                                   RangeConsumer consumer, Consumer<String> errors)
+            throws IOException, InterruptedException {
+        channel.position(start);
+        // Closing the reader closes the channel, which the caller closes again harmlessly
+        try (CsvReader csv = new CsvReader(new InputStreamReader(Channels.newInputStream(channel),
+                StandardCharsets.UTF_8), delimiter)) {
+            if (header) {
+                csv.nextRecord();
+            }
+            List<Student> students = new ArrayList<>(SEQUENTIAL_BATCH);
+            while (csv.nextRecord()) {
+                Student student = FileHandler.parseRow(csv, lineOffset, errors);
+                if (student != null) {
+                    students.add(student);
+                }
+                if (students.size() == SEQUENTIAL_BATCH) {
+                    consumer.accept(students);
+                    students = new ArrayList<>(SEQUENTIAL_BATCH);
+                }
+            }
+            if (!students.isEmpty()) {
+                consumer.accept(students);
+            }
+        }
+    }
+
+    // Count the quotes and line feeds in [start, end)
+    private static long[] countBlock(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        byte[] chunk = new byte[SCAN_BUFFER_SIZE];
+        long quotes = 0;
+        long lines = 0;
+        while (mapped.hasRemaining()) {
+            int n = Math.min(chunk.length, mapped.remaining());
+            mapped.get(chunk, 0, n);
+            for (int i = 0; i < n; i++) {
+                if (chunk[i] == '"') {
+                    quotes++;
+                } else if (chunk[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+        return new long[]{quotes, lines};
+    }
+
+    // Find the first record start at or after from: just past a line feed outside quotes.
+    // Returns the offset (or size if there is none) and the line feeds passed on the way.
+    private long[] findBoundary(FileChannel channel, long from, long size, boolean inQuotes) throws IOException {
+        byte[] chunk = new byte[SCAN_BUFFER_SIZE];
+        long lines = 0;
+        long windowStart = from;
+
+        while (windowStart < size) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                    Math.min(size - windowStart, rangeBytes));
+            long offset = windowStart;
+            while (mapped.hasRemaining()) {
+                int n = Math.min(chunk.length, mapped.remaining());
+                mapped.get(chunk, 0, n);
+                for (int i = 0; i < n; i++) {
+                    if (chunk[i] == '"') {
+                        inQuotes = !inQuotes;
+                    } else if (chunk[i] == '\n') {
+                        lines++;
+                        if (!inQuotes) {
+                            return new long[]{offset + i + 1, lines};
+                        }
+                    }
+                }
+                offset += n;
+            }
+            windowStart = offset;
+        }
+        return new long[]{size, lines};
+    }
+
+    // Wait for a task, rethrowing what it threw
+    private static <T> T await(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("CSV range parse failed", cause);
+        }
+    }
+
+    // The result of parsing one range
+    private static class ParsedRange {
+        private final List<Student> students = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private boolean irregular;
+    }
+
+    // Reads a mapped range as a stream for the character decoder
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+    }
+}
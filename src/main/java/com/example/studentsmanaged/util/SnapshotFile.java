@@ -0,0 +1,405 @@
+package com.example.studentsmanaged.util;
+
+import com.example.studentsmanaged.models.Student;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary snapshot files for backup and restore.
+ * A snapshot is written and read in blocks of a few thousand students through a file
+ * channel, so neither side holds more than one block in memory. Nothing is formatted
+ * or parsed as text: grades are stored as IEEE doubles and strings as UTF-8 bytes.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ *   header:  magic "SMSB", version (short), flags (byte, 1 = deflate), reserved (byte)
+ *   block:   type 1, raw length (int), stored length (int), CRC32 of the raw bytes (int),
+ *            stored bytes, deflated if the header says so
+ *   end:     type 0, total number of students (long)
+ * </pre>
+ * A raw block holds the courses first seen in it, then its students. Strings are a
+ * varint of length + 1 (0 for null) followed by UTF-8 bytes; a student is its ID, its
+ * name, a varint of its course's dictionary index + 1 (0 for none) and its grade.
+ * Courses are numbered in order of first use across the whole file.
+ */
+public class SnapshotFile {
+    private static final int MAGIC = 0x534D5342;
+    private static final short VERSION = 1;
+    private static final byte FLAG_DEFLATE = 1;
+
+    private static final byte BLOCK_END = 0;
+    private static final byte BLOCK_DATA = 1;
+
+    // A block is written once it holds this many students or bytes
+    private static final int BLOCK_STUDENTS = 4096;
+    private static final int BLOCK_BYTES = 1024 * 1024;
+
+    // Larger lengths in a block header mean the file is corrupt
+    private static final int MAX_BLOCK_BYTES = 64 * 1024 * 1024;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int BLOCK_HEADER_SIZE = 13;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Write students to a snapshot file. The file is written beside the target and moved
+     * into place when complete, so a failed write leaves any earlier snapshot intact.
+     *
+     * @param students the students to write
+     * @param file the snapshot file
+     * @param compress whether to deflate each block
+     * @return the number of students written
+     * @throws IOException if the file cannot be written
+     */
+    public static long write(Stream<Student> students, Path file, boolean compress) throws IOException {
+        Path partial = file.resolveSibling(file.getFileName() + ".partial");
+        Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        long count = 0;
+
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).put(compress ? FLAG_DEFLATE : 0).put((byte) 0).flip();
+            writeFully(channel, header);
+
+            Map<String, Integer> courses = new HashMap<>();
+            List<String> newCourses = new ArrayList<>();
+            BlockBuffer records = new BlockBuffer();
+            BlockBuffer block = new BlockBuffer();
+            int blockStudents = 0;
+
+            for (Iterator<Student> it = students.iterator(); it.hasNext(); ) {
+                Student student = it.next();
+                String course = student.getCourse();
+                int courseIndex = 0;
+                if (course != null) {
+                    Integer index = courses.get(course);
+                    if (index == null) {
+                        index = courses.size();
+                        courses.put(course, index);
+                        newCourses.add(course);
+                    }
+                    courseIndex = index + 1;
+                }
+
+                records.putString(student.getId());
+                records.putString(student.getName());
+                records.putVarint(courseIndex);
+                records.putDouble(student.getGrade());
+                blockStudents++;
+                count++;
+
+                if (blockStudents == BLOCK_STUDENTS || records.length >= BLOCK_BYTES) {
+                    writeBlock(channel, block, newCourses, blockStudents, records, deflater);
+                    blockStudents = 0;
+                }
+            }
+            if (blockStudents > 0) {
+                writeBlock(channel, block, newCourses, blockStudents, records, deflater);
+            }
+
+            ByteBuffer end = ByteBuffer.allocate(9);
+            end.put(BLOCK_END).putLong(count).flip();
+            writeFully(channel, end);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * Read a snapshot file block by block. Every block's checksum is verified before its
+     * students are passed on, and the end marker's count must match what was read.
+     *
+     * @param file the snapshot file
+     * @param consumer receives the students of each block in file order
+     * @return the number of students read
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static long read(Path file, Consumer<List<Student>> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, ByteBuffer.allocate(HEADER_SIZE));
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a student snapshot: " + file);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            boolean compressed = (header.get() & FLAG_DEFLATE) != 0;
+
+            Inflater inflater = compressed ? new Inflater() : null;
+            try {
+                List<String> courses = new ArrayList<>();
+                ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+                byte[] stored = new byte[0];
+                byte[] raw = new byte[0];
+                CRC32 crc = new CRC32();
+                long count = 0;
+
+                while (true) {
+                    blockHeader.clear().limit(1);
+                    readFully(channel, blockHeader);
+                    byte type = blockHeader.get();
+
+                    if (type == BLOCK_END) {
+                        long expected = readFully(channel, ByteBuffer.allocate(8)).getLong();
+                        if (expected != count) {
+                            throw new IOException("Snapshot lists " + expected + " students but holds " + count);
+                        }
+                        return count;
+                    }
+                    if (type != BLOCK_DATA) {
+                        throw new IOException("Corrupt snapshot: unknown block type " + type);
+                    }
+
+                    blockHeader.clear().position(1);
+                    readFully(channel, blockHeader);
+                    blockHeader.position(1);
+                    int rawLength = blockHeader.getInt();
+                    int storedLength = blockHeader.getInt();
+                    int checksum = blockHeader.getInt();
+                    if (rawLength < 0 || rawLength > MAX_BLOCK_BYTES
+                            || storedLength < 0 || storedLength > MAX_BLOCK_BYTES) {
+                        throw new IOException("Corrupt snapshot: invalid block length");
+                    }
+
+                    if (stored.length < storedLength) {
+                        stored = new byte[storedLength];
+                    }
+                    readFully(channel, ByteBuffer.wrap(stored, 0, storedLength));
+
+                    if (compressed) {
+                        if (raw.length < rawLength) {
+                            raw = new byte[rawLength];
+                        }
+                        inflate(inflater, stored, storedLength, raw, rawLength);
+                    } else {
+                        raw = stored;
+                    }
+
+                    crc.reset();
+                    crc.update(raw, 0, rawLength);
+                    if ((int) crc.getValue() != checksum) {
+                        throw new IOException("Corrupt snapshot: checksum mismatch in block after "
+                                + count + " students");
+                    }
+
+                    List<Student> students = decodeBlock(ByteBuffer.wrap(raw, 0, rawLength), courses);
+                    count += students.size();
+                    consumer.accept(students);
+                }
+            } finally {
+                if (inflater != null) {
+                    inflater.end();
+                }
+            }
+        }
+    }
+
+    // Write the pending courses and students as one block, then clear them
+    private static void writeBlock(FileChannel channel, BlockBuffer block, List<String> newCourses, int students,
+                                   BlockBuffer records, Deflater deflater) throws IOException {
+        block.length = 0;
+        block.putVarint(newCourses.size());
+        for (String course : newCourses) {
+            block.putString(course);
+        }
+        block.putVarint(students);
+        block.put(records.bytes, 0, records.length);
+        newCourses.clear();
+        records.length = 0;
+
+        CRC32 crc = new CRC32();
+        crc.update(block.bytes, 0, block.length);
+
+        byte[] stored = block.bytes;
+        int storedLength = block.length;
+        if (deflater != null) {
+            deflater.reset();
+            deflater.setInput(block.bytes, 0, block.length);
+            deflater.finish();
+            stored = new byte[block.length + block.length / 16 + 64];
+            storedLength = 0;
+            while (!deflater.finished()) {
+                if (storedLength == stored.length) {
+                    stored = Arrays.copyOf(stored, stored.length * 2);
+                }
+                storedLength += deflater.deflate(stored, storedLength, stored.length - storedLength);
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        header.put(BLOCK_DATA).putInt(block.length).putInt(storedLength).putInt((int) crc.getValue()).flip();
+        writeFully(channel, header, ByteBuffer.wrap(stored, 0, storedLength));
+    }
+
+    private static List<Student> decodeBlock(ByteBuffer raw, List<String> courses) throws IOException {
+        try {
+            int newCourses = getVarint(raw);
+            for (int i = 0; i < newCourses; i++) {
+                courses.add(getString(raw));
+            }
+
+            int count = getVarint(raw);
+            // Every student takes several bytes, so a larger count cannot be genuine
+            if (count < 0 || count > raw.remaining()) {
+                throw new IOException("Corrupt snapshot: student count exceeds its block");
+            }
+            List<Student> students = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = getString(raw);
+                String name = getString(raw);
+                int courseIndex = getVarint(raw);
+                String course = courseIndex == 0 ? null : courses.get(courseIndex - 1);
+                students.add(new Student(name, id, course, raw.getDouble()));
+            }
+            if (raw.hasRemaining()) {
+                throw new IOException("Corrupt snapshot: trailing bytes in block");
+            }
+            return students;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            // The checksum matched, so the writer produced a malformed block
+            throw new IOException("Corrupt snapshot: malformed block", e);
+        }
+    }
+
+    private static void inflate(Inflater inflater, byte[] stored, int storedLength, byte[] raw, int rawLength)
+            throws IOException {
+        inflater.reset();
+        inflater.setInput(stored, 0, storedLength);
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, length, rawLength - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != rawLength || !inflater.finished()) {
+                throw new IOException("Corrupt snapshot: block does not inflate to its recorded length");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    private static int getVarint(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt snapshot: varint too long");
+    }
+
+    private static String getString(ByteBuffer buffer) throws IOException {
+        int length = getVarint(buffer) - 1;
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupt snapshot: string runs past the end of its block");
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer... buffers) throws IOException {
+        ByteBuffer last = buffers[buffers.length - 1];
+        while (last.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Snapshot is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    // A growable byte array for encoding a block
+    private static class BlockBuffer {
+        private byte[] bytes = new byte[64 * 1024];
+        private int length;
+
+        void put(byte[] source, int offset, int count) {
+            ensure(count);
+            System.arraycopy(source, offset, bytes, length, count);
+            length += count;
+        }
+
+        void putVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void putString(String value) {
+            if (value == null) {
+                putVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putVarint(utf8.length + 1);
+            put(utf8, 0, utf8.length);
+        }
+
+        void putDouble(double value) {
+            ensure(8);
+            long bits = Double.doubleToRawLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (bits >>> shift);
+            }
+        }
+
+        private void ensure(int count) {
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+            }
+        }
+    }
+}
@@ -49,6 +49,17 @@ public class ThreadUtil {
         return UI_EXECUTOR;
     }
 
+    /**
+     * Create a fixed-size executor of named daemon threads; the caller must shut it down
+     *
+     * @param namePrefix the thread name prefix
+     * @param threads the number of threads
+     * @return the new executor service
+     */
+    public static ExecutorService newNamedExecutor(String namePrefix, int threads) {
+        return Executors.newFixedThreadPool(threads, new NamedThreadFactory(namePrefix));
+    }
+
     /**
      * Shutdown all executor services
      */
@@ -1,5 +1,6 @@
 package com.example.studentsmanaged.util;
 
+import com.example.studentsmanaged.models.Student;
 
 public class ValidationUtil {
 
@@ -102,4 +103,21 @@ public class ValidationUtil {
         }
         return grade;
     }
-}
\ No newline at end of file
+
+    /**
+     * Validates every field of a student
+     *
+     * @param student the student to validate
+     * @throws StudentManagementException if the student is null or any field is invalid
+     */
+    public static void validateStudent(Student student) throws StudentManagementException {
+        if (student == null) {
+            throw StudentManagementException.validationError("Student cannot be null");
+        }
+
+        validateStudentId(student.getId());
+        validateName(student.getName());
+        validateCourse(student.getCourse());
+        validateGrade(student.getGrade());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.studentsmanaged.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+    @TempDir
+    Path dir;
+
+    private String url;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        url = "jdbc:sqlite:" + dir.resolve("pool.db");
+        ConnectionPool setup = pool(1, 0L, 1_000L);
+        try (Connection conn = setup.borrow(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (x INTEGER)");
+        }
+        setup.close();
+    }
+
+    @AfterEach
+    void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void returnedConnectionIsReused() throws SQLException {
+        pool = pool(2, 0L, 1_000L);
+        pool.borrow().close();
+        pool.borrow().close();
+
+        assertEquals(1, pool.getStats().getCreatedCount());
+        assertEquals(2, pool.getStats().getTotalBorrows());
+        assertEquals(1, pool.getStats().getIdleCount());
+        assertEquals(0, pool.getStats().getActiveCount());
+    }
+
+    @Test
+    void borrowTimesOutWhenEveryConnectionIsOnLoan() throws SQLException {
+        pool = pool(1, 0L, 100L);
+        try (Connection held = pool.borrow()) {
+            long start = System.nanoTime();
+            SQLException e = assertThrows(SQLException.class, pool::borrow);
+            assertTrue(e.getMessage().contains("Timed out"), e.getMessage());
+            assertTrue(System.nanoTime() - start >= 90_000_000L);
+            assertFalse(held.isClosed());
+        }
+        assertEquals(1, pool.getStats().getBorrowTimeouts());
+
+        // The permit came back with the returned connection
+        pool.borrow().close();
+    }
+
+    @Test
+    void idleConnectionsAreEvictedAfterTheIdleTimeout() throws Exception {
+        pool = pool(2, 50L, 1_000L);
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+        first.close();
+        second.close();
+        assertEquals(2, pool.getStats().getIdleCount());
+
+        Thread.sleep(120);
+        pool.borrow().close();
+
+        assertEquals(2, pool.getStats().getEvictedCount());
+        assertEquals(3, pool.getStats().getCreatedCount());
+    }
+
+    @Test
+    void returnedConnectionRollsBackUnfinishedTransaction() throws SQLException {
+        pool = pool(1, 0L, 1_000L);
+        try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.executeUpdate("INSERT INTO t (x) VALUES (1)");
+        }
+
+        try (Connection conn = pool.borrow();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertTrue(conn.getAutoCommit());
+            rs.next();
+            assertEquals(0, rs.getInt(1));
+        }
+        assertEquals(1, pool.getStats().getCreatedCount());
+    }
+
+    @Test
+    void returnedLeaseCannotBeUsedAgain() throws SQLException {
+        pool = pool(1, 0L, 1_000L);
+        Connection conn = pool.borrow();
+        conn.close();
+        // A second close must not release the permit twice
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        Connection next = pool.borrow();
+        assertThrows(SQLException.class, pool::borrow);
+        next.close();
+    }
+
+    @Test
+    void closedPoolRejectsBorrows() throws SQLException {
+        pool = pool(1, 0L, 1_000L);
+        pool.borrow().close();
+        pool.close();
+
+        assertEquals(0, pool.getStats().getIdleCount());
+        assertThrows(SQLException.class, pool::borrow);
+    }
+
+    private ConnectionPool pool(int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis) {
+        return new ConnectionPool("test", url, maxSize, idleTimeoutMillis, borrowTimeoutMillis, conn -> { }, 4);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.studentsmanaged.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroupCommitWriterTest {
+    @TempDir
+    Path dir;
+
+    private DatabaseConnection connection;
+    private GroupCommitWriter writer;
+
+    @BeforeEach
+    void open() {
+        connection = DatabaseConnection.open(dir.resolve("writer.db").toString());
+        writer = connection.getWriter();
+        writer.submit(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                return stmt.execute("CREATE TABLE t (x INTEGER PRIMARY KEY)");
+            }
+        }).join();
+    }
+
+    @AfterEach
+    void close() {
+        connection.shutdown();
+    }
+
+    @Test
+    void failedWriteRollsBackOnlyItsOwnSavepoint() throws SQLException {
+        CountDownLatch release = holdWriter();
+        long groupsBefore = writer.getGroupsCommitted();
+
+        CompletableFuture<Integer> first = writer.submit(conn -> insert(conn, 1));
+        CompletableFuture<Integer> failing = writer.submit(conn -> {
+            insert(conn, 2);
+            // Duplicate key: the whole write, including the insert of 2, must roll back
+            return insert(conn, 1);
+        });
+        CompletableFuture<Integer> last = writer.submit(conn -> insert(conn, 3));
+        release.countDown();
+
+        assertEquals(1, first.join());
+        CompletionException e = assertThrows(CompletionException.class, failing::join);
+        assertInstanceOf(SQLException.class, e.getCause());
+        assertEquals(1, last.join());
+
+        // The held write and the three queued ones commit as two groups
+        assertEquals(groupsBefore + 2, writer.getGroupsCommitted());
+        assertEquals(List.of(1, 3), values());
+    }
+
+    @Test
+    void commitCallbacksRunInOrderBeforeAnyFutureCompletes() {
+        CountDownLatch release = holdWriter();
+
+        List<Integer> callbacks = Collections.synchronizedList(new ArrayList<>());
+        List<Boolean> futureDoneAtCallback = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int value = 100 + i;
+            // Every fifth write fails and must get no callback
+            boolean fail = i % 5 == 4;
+            futures.add(writer.submit(conn -> insert(conn, fail ? 100 : value), committed -> {
+                callbacks.add(value);
+                futureDoneAtCallback.add(futures.stream().anyMatch(CompletableFuture::isDone));
+            }));
+        }
+        release.countDown();
+        futures.forEach(future -> future.handle((result, error) -> result).join());
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            if (i % 5 != 4) {
+                expected.add(100 + i);
+            }
+        }
+        assertEquals(expected, callbacks);
+        assertTrue(futureDoneAtCallback.stream().noneMatch(done -> done), futureDoneAtCallback.toString());
+    }
+
+    @Test
+    void closeDrainsQueuedWritesThenRejectsNewOnes() throws Exception {
+        CountDownLatch release = holdWriter();
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            int value = i;
+            queued.add(writer.submit(conn -> insert(conn, value)));
+        }
+
+        CompletableFuture<Boolean> closed = CompletableFuture.supplyAsync(() -> {
+            try {
+                return writer.close(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        release.countDown();
+
+        assertTrue(closed.get(10, TimeUnit.SECONDS));
+        assertTrue(queued.stream().allMatch(future -> future.isDone() && !future.isCompletedExceptionally()));
+        assertEquals(50, values().size());
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> writer.submit(conn -> insert(conn, 99)).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    // Block the writer thread inside a write until the latch is released, so writes
+    // submitted meanwhile queue up and commit together
+    private CountDownLatch holdWriter() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        writer.submit(conn -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        try {
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return release;
+    }
+
+    private static int insert(Connection conn, int value) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO t (x) VALUES (?)")) {
+            pstmt.setInt(1, value);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private List<Integer> values() throws SQLException {
+        List<Integer> values = new ArrayList<>();
+        try (Connection conn = connection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT x FROM t ORDER BY x")) {
+            while (rs.next()) {
+                values.add(rs.getInt(1));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.studentsmanaged.database;
+
+import java.nio.file.Path;
+
+class InMemoryStudentRepositoryTest extends StudentRepositoryConformanceTest {
+    @Override
+    StudentRepository open(Path dir) {
+        return new InMemoryStudentRepository();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MappedFileStudentRepositoryTest extends StudentRepositoryConformanceTest {
+    // File header: magic and format version
+    private static final int HEADER_SIZE = 8;
+
+    private Path file;
+
+    @Override
+    StudentRepository open(Path dir) throws IOException {
+        file = dir.resolve("students.log");
+        return new MappedFileStudentRepository(file);
+    }
+
+    @Test
+    void reopeningReplaysInsertsUpdatesAndDeletes() throws IOException {
+        repository.addStudent(student("S001", "Ada Lovelace", 91.5));
+        repository.addStudents(List.of(student("S002", "Alan Turing", 88.0), student("S003", "Grace Hopper", 93.0)));
+        repository.updateStudent(student("S001", "Ada King", 95.0));
+        repository.deleteStudent("S002");
+        repository.close();
+
+        repository = new MappedFileStudentRepository(file);
+
+        assertEquals(List.of("S001", "S003"), idsOf(repository.getAllStudents()));
+        assertStudent(repository.getStudentById("S001"), "S001", "Ada King", 95.0);
+        assertStudent(repository.getStudentById("S003"), "S003", "Grace Hopper", 93.0);
+        assertNull(repository.getStudentById("S002"));
+    }
+
+    @Test
+    void reopeningDiscardsTornTrailingRecord() throws IOException {
+        Student first = student("S001", "Ada Lovelace", 91.5);
+        Student second = student("S002", "Alan Turing", 88.0);
+        repository.addStudent(first);
+        repository.addStudent(second);
+        repository.close();
+
+        // A crash after the length and part of the payload were written, but before the
+        // type byte, leaves a record that still reads as END followed by leftover bytes
+        int end = HEADER_SIZE + recordSize(first) + recordSize(second);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(64);
+            torn.put((byte) 0).putInt(200).putInt(4).put("S999".getBytes(StandardCharsets.UTF_8));
+            while (torn.hasRemaining()) {
+                torn.put((byte) 0x7F);
+            }
+            torn.flip();
+            channel.write(torn, end);
+        }
+
+        repository = new MappedFileStudentRepository(file);
+        assertEquals(List.of("S001", "S002"), idsOf(repository.getAllStudents()));
+
+        // The leftovers are cleared, so a shorter record written in their place replays cleanly
+        repository.addStudent(student("S003", "Grace", 70.0));
+        repository.close();
+
+        repository = new MappedFileStudentRepository(file);
+        assertEquals(List.of("S001", "S002", "S003"), idsOf(repository.getAllStudents()));
+        assertStudent(repository.getStudentById("S003"), "S003", "Grace", 70.0);
+        assertEquals(WriteStatus.INSERTED, repository.addStudent(student("S004", "Edsger Dijkstra", 85.0)));
+    }
+
+    // Bytes a PUT record takes: type and length, three length-prefixed strings and the grade
+    private static int recordSize(Student student) {
+        return 5 + 12 + utf8Length(student.getId()) + utf8Length(student.getName())
+                + utf8Length(student.getCourse()) + 8;
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
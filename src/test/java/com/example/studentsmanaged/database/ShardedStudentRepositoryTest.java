@@ -0,0 +1,98 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.models.CourseStatistics;
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardedStudentRepositoryTest extends StudentRepositoryConformanceTest {
+    private static final int SHARDS = 3;
+
+    private String prefix;
+
+    @Override
+    StudentRepository open(Path dir) {
+        prefix = dir.resolve("students").toString();
+        return new ShardedStudentRepository(prefix, SHARDS);
+    }
+
+    @Test
+    void reopeningWithAnotherShardCountFails() {
+        repository.addStudent(student("S001", "Ada Lovelace", 91.5));
+        repository.close();
+
+        assertThrows(IllegalStateException.class, () -> new ShardedStudentRepository(prefix, SHARDS + 1));
+
+        repository = new ShardedStudentRepository(prefix, SHARDS);
+        assertStudent(repository.getStudentById("S001"), "S001", "Ada Lovelace", 91.5);
+    }
+
+    // Shards commit independently, so only each ID's changes are ordered; a batch spanning
+    // shards may report its rows in either order
+    @Override
+    @Test
+    void commitListenerSeesEveryChangeInCommitOrder() {
+        List<CommitListener.Change> changes = new ArrayList<>();
+        repository.setCommitListener(committed -> {
+            synchronized (changes) {
+                changes.addAll(committed);
+            }
+        });
+
+        repository.addStudent(student("S001", "Ada Lovelace", 91.5));
+        repository.updateStudent(student("S001", "Ada King", 95.0));
+        repository.addStudents(List.of(student("S002", "Alan Turing", 88.0), student("S003", "Grace Hopper", 93.0)));
+        repository.deleteStudent("S001");
+
+        synchronized (changes) {
+            assertEquals(5, changes.size());
+            assertEquals(List.of("S001", "S001"), List.of(changes.get(0).getStudentId(), changes.get(1).getStudentId()));
+            assertEquals(WriteStatus.UPDATED, changes.get(1).getStatus());
+            assertEquals(Set.of("S002", "S003"), Set.of(changes.get(2).getStudentId(), changes.get(3).getStudentId()));
+            assertEquals(WriteStatus.DELETED, changes.get(4).getStatus());
+            assertEquals("S001", changes.get(4).getStudentId());
+        }
+    }
+
+    @Test
+    void courseStatisticsMergeAcrossShards() {
+        List<Student> students = new ArrayList<>();
+        InMemoryStudentRepository reference = new InMemoryStudentRepository();
+        for (int i = 0; i < 500; i++) {
+            Student student = new Student("Student " + i, String.format("S%04d", i),
+                    i % 3 == 0 ? "Mathematics" : "Physics", (i * 37 % 1000) / 10.0);
+            students.add(student);
+        }
+        repository.addStudents(students);
+        reference.addStudents(students);
+
+        List<CourseStatistics> expected = reference.getCourseStatistics();
+        List<CourseStatistics> actual = repository.getCourseStatistics();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertStatistics(expected.get(i), actual.get(i));
+        }
+        assertStatistics(reference.getCourseStatistics("Physics"), repository.getCourseStatistics("Physics"));
+    }
+
+    private static void assertStatistics(CourseStatistics expected, CourseStatistics actual) {
+        assertEquals(expected.getCourse(), actual.getCourse());
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getMean(), actual.getMean(), 1e-9);
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+        assertEquals(expected.getP25(), actual.getP25(), 1e-9);
+        assertEquals(expected.getMedian(), actual.getMedian(), 1e-9);
+        assertEquals(expected.getP75(), actual.getP75(), 1e-9);
+        assertEquals(expected.getP90(), actual.getP90(), 1e-9);
+        assertArrayEquals(expected.getHistogram(), actual.getHistogram());
+    }
+}
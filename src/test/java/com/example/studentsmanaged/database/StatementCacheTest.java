@@ -0,0 +1,130 @@
+package com.example.studentsmanaged.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementCacheTest {
+    private static final String SELECT_A = "SELECT x FROM t WHERE x = ?";
+    private static final String SELECT_B = "SELECT x FROM t WHERE x > ?";
+    private static final String SELECT_C = "SELECT x FROM t WHERE x < ?";
+
+    @TempDir
+    Path dir;
+
+    private Connection connection;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @BeforeEach
+    void open() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("statements.db"));
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE t (x INTEGER)");
+            stmt.execute("INSERT INTO t (x) VALUES (1), (2), (3)");
+        }
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void closedStatementIsReusedWithParametersCleared() throws SQLException {
+        StatementCache cache = new StatementCache(connection, 4, hits, misses);
+
+        PreparedStatement first = cache.prepare(SELECT_A);
+        first.setInt(1, 2);
+        first.setMaxRows(1);
+        try (ResultSet rs = first.executeQuery()) {
+            assertTrue(rs.next());
+            assertEquals(2, rs.getInt(1));
+        }
+        first.close();
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, first::executeQuery);
+
+        PreparedStatement second = cache.prepare(SELECT_A);
+        assertSame(first, second);
+        assertEquals(1, hits.get());
+        assertEquals(1, misses.get());
+        assertEquals(0, second.getMaxRows());
+        // The old parameter is gone, so the query binds NULL and matches nothing
+        try (ResultSet rs = second.executeQuery()) {
+            assertFalse(rs.next());
+        }
+        second.close();
+        cache.closeAll();
+    }
+
+    @Test
+    void leastRecentlyUsedStatementIsEvicted() throws SQLException {
+        StatementCache cache = new StatementCache(connection, 2, hits, misses);
+        PreparedStatement a = cache.prepare(SELECT_A);
+        a.close();
+        cache.prepare(SELECT_B).close();
+        // Touch A so B becomes the eldest
+        cache.prepare(SELECT_A).close();
+        cache.prepare(SELECT_C).close();
+
+        assertEquals(3, misses.get());
+        assertEquals(1, hits.get());
+
+        assertSame(a, cache.prepare(SELECT_A));
+        cache.prepare(SELECT_A).close();
+        PreparedStatement b = cache.prepare(SELECT_B);
+        assertEquals(2, hits.get());
+        assertEquals(5, misses.get());
+        b.close();
+        cache.closeAll();
+    }
+
+    @Test
+    void sameSqlWhileInUseGetsAnUncachedStatement() throws SQLException {
+        StatementCache cache = new StatementCache(connection, 2, hits, misses);
+        PreparedStatement cached = cache.prepare(SELECT_A);
+        PreparedStatement uncached = cache.prepare(SELECT_A);
+        assertNotSame(cached, uncached);
+
+        uncached.close();
+        assertTrue(uncached.isClosed());
+        cached.close();
+
+        assertSame(cached, cache.prepare(SELECT_A));
+        cache.closeAll();
+    }
+
+    @Test
+    void statementEvictedWhileInUseStaysUsableUntilClosed() throws SQLException {
+        StatementCache cache = new StatementCache(connection, 1, hits, misses);
+        PreparedStatement a = cache.prepare(SELECT_A);
+        cache.prepare(SELECT_B).close();
+
+        a.setInt(1, 3);
+        try (ResultSet rs = a.executeQuery()) {
+            assertTrue(rs.next());
+        }
+        a.close();
+
+        assertNotSame(a, cache.prepare(SELECT_A));
+        cache.closeAll();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.studentsmanaged.database;
+
+import java.nio.file.Path;
+
+class StudentDAOTest extends StudentRepositoryConformanceTest {
+    private DatabaseConnection connection;
+
+    @Override
+    StudentRepository open(Path dir) {
+        connection = DatabaseConnection.open(dir.resolve("students.db").toString());
+        return new StudentDAO(connection);
+    }
+
+    @Override
+    void close(StudentRepository repository) {
+        repository.close();
+        connection.shutdown();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comparative throughput of the storage engines on the same workload.
+ * Skipped by default; run with
+ * mvn test -Dtest=StudentRepositoryBenchmarkTest -Dsms.benchmark=true
+ * and size it with -Dsms.benchmark.rows (default 20000).
+ */
+@EnabledIfSystemProperty(named = "sms.benchmark", matches = "true")
+class StudentRepositoryBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("sms.benchmark.rows", 20_000);
+    private static final String[] COURSES = {"Computer Science", "Mathematics", "Physics", "Biology", "History"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compareEngines() throws Exception {
+        List<Student> students = new ArrayList<>(ROWS);
+        Random random = new Random(42);
+        for (int i = 0; i < ROWS; i++) {
+            students.add(new Student("Student Name", String.format("S%07d", i), COURSES[i % COURSES.length],
+                    Math.round(random.nextDouble() * 10_000) / 100.0));
+        }
+
+        System.out.printf("%-8s %12s %12s %12s %12s %12s%n", "engine", "batch/s", "async/s", "lookup/s",
+                "scan/s", "page/s");
+        run("MEMORY", new InMemoryStudentRepository(), null, students);
+        run("MAPPED", new MappedFileStudentRepository(dir.resolve("bench.log")), null, students);
+        DatabaseConnection connection = DatabaseConnection.open(dir.resolve("bench.db").toString());
+        run("SQLITE", new StudentDAO(connection), connection, students);
+        run("SHARDED", new ShardedStudentRepository(dir.resolve("bench").toString(), 4), null, students);
+    }
+
+    private void run(String engine, StudentRepository repository, DatabaseConnection connection,
+                     List<Student> students) {
+        try {
+            int half = students.size() / 2;
+            List<Student> batch = students.subList(0, half);
+            List<Student> single = students.subList(half, students.size());
+
+            long start = System.nanoTime();
+            assertEquals(batch.size(), repository.addStudents(batch).getInserted());
+            double batchRate = rate(batch.size(), start);
+
+            // Queue every write before waiting, as the service does for imports
+            start = System.nanoTime();
+            List<CompletableFuture<WriteStatus>> futures = new ArrayList<>(single.size());
+            for (Student student : single) {
+                futures.add(repository.addStudentAsync(student));
+            }
+            for (CompletableFuture<WriteStatus> future : futures) {
+                assertEquals(WriteStatus.INSERTED, future.join());
+            }
+            double asyncRate = rate(single.size(), start);
+
+            Random random = new Random(7);
+            start = System.nanoTime();
+            for (int i = 0; i < students.size(); i++) {
+                repository.getStudentById(students.get(random.nextInt(students.size())).getId());
+            }
+            double lookupRate = rate(students.size(), start);
+
+            start = System.nanoTime();
+            int scanned = repository.forEachStudent(student -> { });
+            assertEquals(students.size(), scanned);
+            double scanRate = rate(scanned, start);
+
+            start = System.nanoTime();
+            int paged = 0;
+            String afterId = null;
+            List<Student> page;
+            while (!(page = repository.getStudentsPage(afterId, 500)).isEmpty()) {
+                paged += page.size();
+                afterId = page.get(page.size() - 1).getId();
+            }
+            assertEquals(students.size(), paged);
+            double pageRate = rate(paged, start);
+
+            System.out.printf("%-8s %12.0f %12.0f %12.0f %12.0f %12.0f%n", engine, batchRate, asyncRate,
+                    lookupRate, scanRate, pageRate);
+        } finally {
+            repository.close();
+            if (connection != null) {
+                connection.shutdown();
+            }
+        }
+    }
+
+    // Operations per second since start
+    private static double rate(int operations, long start) {
+        return operations / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,332 @@
+package com.example.studentsmanaged.database;
+
+import com.example.studentsmanaged.models.CourseStatistics;
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every StudentRepository backend must share.
+ * Each backend subclasses this suite and supplies a fresh repository per test.
+ */
+abstract class StudentRepositoryConformanceTest {
+    @TempDir
+    Path dir;
+
+    StudentRepository repository;
+
+    // Open an empty repository whose files, if any, live under dir
+    abstract StudentRepository open(Path dir) throws Exception;
+
+    // Release the repository and anything opened alongside it
+    void close(StudentRepository repository) {
+        repository.close();
+    }
+
+    @BeforeEach
+    void openRepository() throws Exception {
+        repository = open(dir);
+    }
+
+    @AfterEach
+    void closeRepository() {
+        close(repository);
+    }
+
+    @Test
+    void addInsertsNewStudentAndRejectsTakenId() {
+        assertEquals(WriteStatus.INSERTED, repository.addStudent(student("S001", "Ada Lovelace", 91.5)));
+        assertEquals(WriteStatus.DUPLICATE, repository.addStudent(student("S001", "Someone Else", 40.0)));
+
+        assertStudent(repository.getStudentById("S001"), "S001", "Ada Lovelace", 91.5);
+    }
+
+    @Test
+    void updateReplacesExistingStudentAndReportsMissingOne() {
+        repository.addStudent(student("S001", "Ada Lovelace", 91.5));
+
+        assertEquals(WriteStatus.UPDATED, repository.updateStudent(student("S001", "Ada King", 95.0)));
+        assertEquals(WriteStatus.NOT_FOUND, repository.updateStudent(student("S002", "Alan Turing", 88.0)));
+
+        assertStudent(repository.getStudentById("S001"), "S001", "Ada King", 95.0);
+        assertNull(repository.getStudentById("S002"));
+    }
+
+    @Test
+    void upsertInsertsThenReplaces() {
+        assertTrue(repository.upsertStudent(student("S001", "Ada Lovelace", 91.5)));
+        assertTrue(repository.upsertStudent(student("S001", "Ada King", 95.0)));
+
+        assertStudent(repository.getStudentById("S001"), "S001", "Ada King", 95.0);
+        assertEquals(1, repository.getAllStudents().size());
+    }
+
+    @Test
+    void deleteRemovesStudentAndReportsMissingOne() {
+        repository.addStudent(student("S001", "Ada Lovelace", 91.5));
+
+        assertEquals(WriteStatus.DELETED, repository.deleteStudent("S001"));
+        assertEquals(WriteStatus.NOT_FOUND, repository.deleteStudent("S001"));
+
+        assertNull(repository.getStudentById("S001"));
+        assertFalse(repository.studentExists("S001"));
+    }
+
+    @Test
+    void deletedIdCanBeAddedAgain() {
+        repository.addStudent(student("S001", "Ada Lovelace", 91.5));
+        repository.deleteStudent("S001");
+
+        assertEquals(WriteStatus.INSERTED, repository.addStudent(student("S001", "Alan Turing", 88.0)));
+        assertStudent(repository.getStudentById("S001"), "S001", "Alan Turing", 88.0);
+    }
+
+    @Test
+    void getStudentByIdReturnsPresentStudentAndNullForMissingId() {
+        repository.addStudent(student("S001", "Ada Lovelace", 91.5));
+
+        assertStudent(repository.getStudentById("S001"), "S001", "Ada Lovelace", 91.5);
+        assertNull(repository.getStudentById("S999"));
+        assertTrue(repository.studentExists("S001"));
+        assertFalse(repository.studentExists("S999"));
+    }
+
+    @Test
+    void findExistingIdsReturnsOnlyStoredIds() {
+        List<Student> stored = new ArrayList<>();
+        for (int i = 0; i < 1_200; i += 2) {
+            stored.add(student(String.format("S%04d", i), "Student " + i, i % 100));
+        }
+        repository.addStudents(stored);
+
+        // More IDs than one lookup batch, half of them absent
+        List<String> probe = new ArrayList<>();
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 1_200; i++) {
+            probe.add(String.format("S%04d", i));
+            if (i % 2 == 0) {
+                expected.add(String.format("S%04d", i));
+            }
+        }
+
+        assertEquals(expected, repository.findExistingIds(probe));
+        assertEquals(Set.of(), repository.findExistingIds(List.of("S9999")));
+        assertEquals(Set.of(), repository.findExistingIds(List.of()));
+    }
+
+    @Test
+    void addStudentsReportsEveryRowInInputOrder() {
+        repository.addStudent(student("S002", "Existing Student", 70.0));
+
+        List<Student> batch = List.of(
+                student("S001", "Ada Lovelace", 91.5),
+                student("S002", "Taken Id", 60.0),
+                student("S003", "Alan Turing", 88.0),
+                student("S003", "Repeated Id", 50.0),
+                student("S004", "Grace Hopper", 93.25));
+        // A batch size smaller than the input exercises the chunk boundaries
+        BatchResult result = repository.addStudents(batch, 2);
+
+        assertEquals(5, result.size());
+        assertStatuses(result, WriteStatus.INSERTED, WriteStatus.DUPLICATE, WriteStatus.INSERTED,
+                WriteStatus.DUPLICATE, WriteStatus.INSERTED);
+        List<String> ids = new ArrayList<>();
+        for (BatchResult.RowResult row : result.getRows()) {
+            ids.add(row.getStudentId());
+        }
+        assertEquals(List.of("S001", "S002", "S003", "S003", "S004"), ids);
+        assertEquals(3, result.getInserted());
+        assertEquals(2, result.getDuplicates());
+
+        assertStudent(repository.getStudentById("S002"), "S002", "Existing Student", 70.0);
+        assertStudent(repository.getStudentById("S003"), "S003", "Alan Turing", 88.0);
+        assertEquals(4, repository.getAllStudents().size());
+    }
+
+    @Test
+    void updateStudentsReportsMissingRows() {
+        repository.addStudents(List.of(student("S001", "Ada Lovelace", 91.5), student("S003", "Alan Turing", 88.0)));
+
+        BatchResult result = repository.updateStudents(List.of(
+                student("S001", "Ada King", 95.0),
+                student("S002", "Nobody Here", 10.0),
+                student("S003", "Alan Turing", 89.0)), 2);
+
+        assertStatuses(result, WriteStatus.UPDATED, WriteStatus.NOT_FOUND, WriteStatus.UPDATED);
+        assertEquals(2, result.getUpdated());
+        assertEquals(1, result.getNotFound());
+        assertStudent(repository.getStudentById("S001"), "S001", "Ada King", 95.0);
+        assertStudent(repository.getStudentById("S003"), "S003", "Alan Turing", 89.0);
+        assertNull(repository.getStudentById("S002"));
+    }
+
+    @Test
+    void forEachStudentVisitsStudentsInIdOrder() {
+        for (String id : List.of("S050", "S007", "S300", "S010", "S001")) {
+            repository.addStudent(student(id, "Student Name", 75.0));
+        }
+        repository.deleteStudent("S010");
+
+        List<String> visited = new ArrayList<>();
+        int count = repository.forEachStudent(student -> visited.add(student.getId()));
+
+        assertEquals(List.of("S001", "S007", "S050", "S300"), visited);
+        assertEquals(4, count);
+        assertEquals(visited.size(), repository.getAllStudentIds().size());
+    }
+
+    @Test
+    void getStudentsPageWalksTheTableInKeysetPages() {
+        List<Student> batch = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            batch.add(student(String.format("S%03d", i), "Student Name", 50.0 + i));
+        }
+        repository.addStudents(batch);
+
+        List<String> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String afterId = null;
+        while (true) {
+            List<Student> page = repository.getStudentsPage(afterId, 10);
+            if (page.isEmpty()) {
+                break;
+            }
+            pageSizes.add(page.size());
+            for (Student student : page) {
+                seen.add(student.getId());
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+
+        assertEquals(List.of(10, 10, 5), pageSizes);
+        List<String> expected = new ArrayList<>();
+        for (Student student : batch) {
+            expected.add(student.getId());
+        }
+        assertEquals(expected, seen);
+        assertEquals(List.of("S013", "S014"), idsOf(repository.getStudentsPage("S012", 2)));
+        assertTrue(repository.getStudentsPage("S024", 10).isEmpty());
+    }
+
+    @Test
+    void rankingQueriesOrderByGradeThenId() {
+        repository.addStudents(List.of(
+                new Student("Ada Lovelace", "S001", "Mathematics", 90.0),
+                new Student("Alan Turing", "S002", "Mathematics", 95.0),
+                new Student("Grace Hopper", "S003", "Mathematics", 90.0),
+                new Student("Edsger Dijkstra", "S004", "Mathematics", 70.0),
+                new Student("Barbara Liskov", "S005", "Physics", 99.0),
+                new Student("Donald Knuth", "S006", "Physics", 60.0)));
+        repository.updateStudent(new Student("Donald Knuth", "S006", "Physics", 80.0));
+        repository.deleteStudent("S004");
+
+        assertEquals(List.of("S002", "S001"), idsOf(repository.getTopStudents("Mathematics", 2)));
+        assertEquals(List.of("S005", "S002", "S001"), idsOf(repository.getTopStudents(null, 3)));
+        assertTrue(repository.getTopStudents("History", 3).isEmpty());
+
+        Map<String, List<Student>> perCourse = repository.getTopStudentsPerCourse(2);
+        assertEquals(List.of("Mathematics", "Physics"), new ArrayList<>(perCourse.keySet()));
+        assertEquals(List.of("S002", "S001"), idsOf(perCourse.get("Mathematics")));
+        assertEquals(List.of("S005", "S006"), idsOf(perCourse.get("Physics")));
+
+        // Equal grades share a rank
+        assertEquals(1, repository.getCourseRank("S002"));
+        assertEquals(2, repository.getCourseRank("S001"));
+        assertEquals(2, repository.getCourseRank("S003"));
+        assertEquals(2, repository.getCourseRank("S006"));
+        assertEquals(0, repository.getCourseRank("S004"));
+        assertEquals(100.0 * 2 / 3, repository.getCoursePercentile("S001"), 1e-9);
+        assertTrue(Double.isNaN(repository.getCoursePercentile("S004")));
+
+        CourseStatistics mathematics = repository.getCourseStatistics("Mathematics");
+        assertEquals(3, mathematics.getCount());
+        assertEquals(90.0, mathematics.getMin());
+        assertEquals(95.0, mathematics.getMax());
+        assertEquals(List.of("Mathematics", "Physics"), courseNames(repository.getCourseStatistics()));
+        assertNull(repository.getCourseStatistics("History"));
+    }
+
+    @Test
+    void commitListenerSeesEveryChangeInCommitOrder() {
+        List<CommitListener.Change> changes = new ArrayList<>();
+        repository.setCommitListener(committed -> {
+            synchronized (changes) {
+                changes.addAll(committed);
+            }
+        });
+
+        repository.addStudent(student("S001", "Ada Lovelace", 91.5));
+        repository.addStudent(student("S001", "Duplicate Row", 10.0));
+        repository.updateStudent(student("S001", "Ada King", 95.0));
+        repository.addStudents(List.of(student("S002", "Alan Turing", 88.0), student("S003", "Grace Hopper", 93.0)));
+        repository.deleteStudent("S001");
+        repository.deleteStudent("S001");
+
+        synchronized (changes) {
+            assertEquals(5, changes.size());
+            assertChange(changes.get(0), WriteStatus.INSERTED, "S001");
+            assertChange(changes.get(1), WriteStatus.UPDATED, "S001");
+            assertEquals("Ada King", changes.get(1).getStudent().getName());
+            assertChange(changes.get(2), WriteStatus.INSERTED, "S002");
+            assertChange(changes.get(3), WriteStatus.INSERTED, "S003");
+            assertChange(changes.get(4), WriteStatus.DELETED, "S001");
+            assertNull(changes.get(4).getStudent());
+        }
+    }
+
+    static Student student(String id, String name, double grade) {
+        return new Student(name, id, "Computer Science", grade);
+    }
+
+    static void assertStudent(Student student, String id, String name, double grade) {
+        assertNotNull(student, "Missing student " + id);
+        assertEquals(id, student.getId());
+        assertEquals(name, student.getName());
+        assertEquals("Computer Science", student.getCourse());
+        assertEquals(grade, student.getGrade());
+    }
+
+    static List<String> idsOf(List<Student> students) {
+        List<String> ids = new ArrayList<>();
+        for (Student student : students) {
+            ids.add(student.getId());
+        }
+        return ids;
+    }
+
+    private static List<String> courseNames(List<CourseStatistics> stats) {
+        List<String> names = new ArrayList<>();
+        for (CourseStatistics course : stats) {
+            names.add(course.getCourse());
+        }
+        return names;
+    }
+
+    private static void assertStatuses(BatchResult result, WriteStatus... expected) {
+        List<WriteStatus> statuses = new ArrayList<>();
+        for (BatchResult.RowResult row : result.getRows()) {
+            statuses.add(row.getStatus());
+        }
+        assertEquals(List.of(expected), statuses);
+    }
+
+    private static void assertChange(CommitListener.Change change, WriteStatus status, String id) {
+        assertEquals(status, change.getStatus());
+        assertEquals(id, change.getStudentId());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.database.InMemoryStudentRepository;
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvImportPipelineTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void validateStageFailureStopsImportInsteadOfBlockingReader() throws IOException {
+        // Far more chunks than the queues hold, so the reader would block if nothing drained them
+        Path file = writeCsv(50_000);
+        InMemoryStudentRepository repository = new InMemoryStudentRepository();
+        StudentIdFilter filter = StudentIdFilter.load(repository);
+        ImportReconciler failing = new ImportReconciler(repository, new StudentCache(100), () -> filter) {
+            @Override
+            List<Student> validate(List<Student> rows, List<String> errors) {
+                throw new IllegalStateException("validator broke");
+            }
+        };
+
+        ImportReport report = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> new CsvImportPipeline(failing).importFile(file.toString(), ImportMode.INSERT_ONLY));
+
+        assertEquals(0, report.getApplied());
+        assertTrue(report.getErrors().stream().anyMatch(error -> error.contains("validator broke")),
+                report.getErrors().toString());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void importsEveryRowAcrossChunks() throws Exception {
+        Path file = writeCsv(2_500);
+        InMemoryStudentRepository repository = new InMemoryStudentRepository();
+        StudentIdFilter filter = StudentIdFilter.load(repository);
+        ImportReconciler reconciler = new ImportReconciler(repository, new StudentCache(100), () -> filter);
+
+        ImportReport report = new CsvImportPipeline(reconciler).importFile(file.toString(), ImportMode.INSERT_ONLY);
+
+        assertEquals(2_500, report.getTotalRows());
+        assertEquals(2_500, report.getInserted());
+        assertTrue(report.getErrors().isEmpty(), report.getErrors().toString());
+        assertEquals(2_500, repository.getAllStudents().size());
+    }
+
+    @Test
+    void missingFileIsReportedAsAnError() throws Exception {
+        String file = dir.resolve("missing.csv").toString();
+        InMemoryStudentRepository repository = new InMemoryStudentRepository();
+        StudentIdFilter filter = StudentIdFilter.load(repository);
+        ImportReconciler reconciler = new ImportReconciler(repository, new StudentCache(100), () -> filter);
+
+        ImportReport report = new CsvImportPipeline(reconciler).importFile(file, ImportMode.INSERT_ONLY);
+
+        assertEquals(0, report.getTotalRows());
+        assertEquals(List.of("Error reading " + file + ": File does not exist"), report.getErrors());
+    }
+
+    @Test
+    void malformedRowsAreReportedAsInvalidWithLineNumbers() throws Exception {
+        Path file = dir.resolve("students.csv");
+        Files.writeString(file, String.join("\n",
+                "ID,Name,Course,Grade",
+                "S001,Ada Lovelace,Mathematics,91.5",
+                "S002,Alan Turing,Mathematics",
+                "S003,Grace Hopper,Mathematics,ninety",
+                "S004,Edsger Dijkstra,Mathematics,85",
+                ""));
+        InMemoryStudentRepository repository = new InMemoryStudentRepository();
+        StudentIdFilter filter = StudentIdFilter.load(repository);
+        ImportReconciler reconciler = new ImportReconciler(repository, new StudentCache(100), () -> filter);
+
+        ImportReport report = new CsvImportPipeline(reconciler).importFile(file.toString(), ImportMode.INSERT_ONLY);
+
+        assertEquals(4, report.getTotalRows());
+        assertEquals(2, report.getInserted());
+        assertEquals(2, report.getInvalid());
+        assertEquals(2, report.getErrors().size());
+        assertTrue(report.getErrors().get(0).contains("line 3"), report.getErrors().get(0));
+        assertTrue(report.getErrors().get(1).contains("line 4"), report.getErrors().get(1));
+    }
+
+    private Path writeCsv(int rows) throws IOException {
+        Path file = dir.resolve("students.csv");
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("ID,Name,Course,Grade");
+            out.newLine();
+            for (int i = 0; i < rows; i++) {
+                out.write(String.format("S%06d,Student Name,Computer Science,%d.5", i, i % 100));
+                out.newLine();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.database.InMemoryStudentRepository;
+import com.example.studentsmanaged.models.CourseStatistics;
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GradeStatisticsEngineTest {
+    // Percentiles come from 0.01 buckets, so they may be off by half a bucket
+    private static final double BUCKET_ERROR = 0.005;
+
+    @Test
+    void minMaxAndBandsAreExactForGradesBetweenBuckets() {
+        InMemoryStudentRepository repository = new InMemoryStudentRepository();
+        repository.addStudents(List.of(
+                new Student("Ada Lovelace", "S001", "Mathematics", 89.996),
+                new Student("Alan Turing", "S002", "Mathematics", 59.9951),
+                new Student("Grace Hopper", "S003", "Mathematics", 70.001)));
+
+        CourseStatistics stats = GradeStatisticsEngine.load(repository).getCourseStatistics("Mathematics");
+
+        assertEquals(59.9951, stats.getMin());
+        assertEquals(89.996, stats.getMax());
+        // Rounding to the bucket would move both into the next band up
+        assertEquals(1, stats.getHistogram()[5]);
+        assertEquals(1, stats.getHistogram()[7]);
+        assertEquals(1, stats.getHistogram()[8]);
+        assertEquals(0, stats.getHistogram()[6]);
+        assertEquals(0, stats.getHistogram()[9]);
+    }
+
+    @Test
+    void matchesFullSortAfterUpdatesAndDeletes() {
+        InMemoryStudentRepository repository = new InMemoryStudentRepository();
+        Random random = new Random(11);
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            students.add(new Student("Student Name", String.format("S%05d", i), i % 2 == 0 ? "Physics" : "History",
+                    random.nextDouble() * 100));
+        }
+        repository.addStudents(students);
+        GradeStatisticsEngine engine = GradeStatisticsEngine.load(repository);
+
+        List<StudentChangeEvent> events = new ArrayList<>();
+        for (int i = 0; i < students.size(); i += 3) {
+            Student changed = new Student(students.get(i));
+            changed.setGrade(random.nextDouble() * 100);
+            changed.setCourse(i % 4 == 0 ? "History" : "Physics");
+            repository.updateStudent(changed);
+            events.add(StudentChangeEvent.updated(changed));
+        }
+        for (int i = 1; i < students.size(); i += 5) {
+            repository.deleteStudent(students.get(i).getId());
+            events.add(StudentChangeEvent.deleted(students.get(i).getId()));
+        }
+        engine.apply(events);
+
+        for (String course : List.of("History", "Physics")) {
+            CourseStatistics expected = repository.getCourseStatistics(course);
+            CourseStatistics actual = engine.getCourseStatistics(course);
+
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(expected.getMean(), actual.getMean(), 1e-9);
+            assertEquals(expected.getMin(), actual.getMin());
+            assertEquals(expected.getMax(), actual.getMax());
+            assertArrayEquals(expected.getHistogram(), actual.getHistogram());
+            assertEquals(expected.getP25(), actual.getP25(), BUCKET_ERROR);
+            assertEquals(expected.getMedian(), actual.getMedian(), BUCKET_ERROR);
+            assertEquals(expected.getP75(), actual.getP75(), BUCKET_ERROR);
+            assertEquals(expected.getP90(), actual.getP90(), BUCKET_ERROR);
+        }
+        assertNull(engine.getCourseStatistics("Biology"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StudentCacheTest {
+    @Test
+    void loadRacingWithAWriteIsNotCached() {
+        StudentCache cache = new StudentCache(16);
+        Student stale = new Student("Ada", "S001", "Mathematics", 70.0);
+        Student fresh = new Student("Ada", "S001", "Mathematics", 95.0);
+
+        // The write lands while the loader is still reading the old row
+        Student loaded = cache.get("S001", id -> {
+            cache.put(fresh);
+            return stale;
+        });
+        assertEquals(70.0, loaded.getGrade());
+
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(95.0, cache.get("S001", id -> {
+            loads.incrementAndGet();
+            return stale;
+        }).getGrade());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void loadRacingWithAnInvalidateIsNotCached() {
+        StudentCache cache = new StudentCache(16);
+        cache.get("S001", id -> {
+            cache.invalidate("S001");
+            return null;
+        });
+
+        AtomicInteger loads = new AtomicInteger();
+        Student student = new Student("Ada", "S001", "Mathematics", 80.0);
+        assertEquals(80.0, cache.get("S001", id -> {
+            loads.incrementAndGet();
+            return student;
+        }).getGrade());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void absentIdsAreCachedAsNegativeEntries() {
+        StudentCache cache = new StudentCache(16);
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.get("missing", id -> {
+                loads.incrementAndGet();
+                return null;
+            }));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().getMisses());
+        assertEquals(2, cache.getStats().getNegativeHits());
+
+        cache.putAbsent("S001");
+        assertNull(cache.get("S001", id -> new Student("Ada", "S001", "Mathematics", 80.0)));
+        assertEquals(3, cache.getStats().getNegativeHits());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedAtCapacity() {
+        StudentCache cache = new StudentCache(2);
+        cache.put(new Student("A", "S001", "Physics", 50.0));
+        cache.put(new Student("B", "S002", "Physics", 60.0));
+        // Touch S001 so S002 becomes the eldest
+        cache.get("S001", id -> null);
+        cache.put(new Student("C", "S003", "Physics", 70.0));
+
+        StudentCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("S001", id -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        cache.get("S002", id -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void valuesAreCopiedInAndOut() {
+        StudentCache cache = new StudentCache(4);
+        Student stored = new Student("Ada", "S001", "Mathematics", 80.0);
+        cache.put(stored);
+        stored.setGrade(10.0);
+
+        Student first = cache.get("S001", id -> null);
+        assertEquals(80.0, first.getGrade());
+        first.setGrade(20.0);
+
+        Student second = cache.get("S001", id -> null);
+        assertEquals(80.0, second.getGrade());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void capacityMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new StudentCache(0));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.database.InMemoryStudentRepository;
+import com.example.studentsmanaged.models.CourseStatistics;
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StudentServiceTest {
+    @Test
+    void snapshotLoadDoesNotBlockCommitsAndKeepsThem() throws Exception {
+        assertLoadKeepsConcurrentCommits(service -> {
+            StudentSnapshot snapshot = service.getSnapshot();
+            assertFalse(snapshot.contains("S001"));
+            assertEquals(90.0, snapshot.get("S002").getGrade());
+            assertTrue(snapshot.contains("S003"));
+            return snapshot.size();
+        });
+    }
+
+    @Test
+    void gradeColumnLoadDoesNotBlockCommitsAndKeepsThem() throws Exception {
+        assertLoadKeepsConcurrentCommits(service -> service.getGradeColumns().count());
+    }
+
+    @Test
+    void gradeStatisticsLoadDoesNotBlockCommitsAndKeepsThem() throws Exception {
+        assertLoadKeepsConcurrentCommits(service -> {
+            List<CourseStatistics> stats = service.getCourseStatistics();
+            assertEquals(90.0, stats.get(0).getMax());
+            return stats.get(0).getCount();
+        });
+    }
+
+    // Start a view's first load, commit while its scan is held, then check the view has
+    // the commits: S001 deleted, S002 updated to 90 and S003 added, leaving two students
+    private static void assertLoadKeepsConcurrentCommits(Function<StudentService, Integer> load) throws Exception {
+        BlockingRepository repository = new BlockingRepository();
+        repository.addStudent(new Student("Ada Lovelace", "S001", "Mathematics", 70.0));
+        repository.addStudent(new Student("Alan Turing", "S002", "Mathematics", 80.0));
+        StudentService service = new StudentService(repository);
+
+        repository.blockNextScan();
+        CompletableFuture<Integer> loaded = CompletableFuture.supplyAsync(() -> load.apply(service));
+        assertTrue(repository.scanStarted.await(10, TimeUnit.SECONDS));
+
+        // These would wait for the load if it held the lock the commit path takes
+        CompletableFuture.runAsync(() -> {
+            try {
+                service.deleteStudent("S001");
+                service.updateStudent(new Student("Alan Turing", "S002", "Mathematics", 90.0));
+                service.addStudent(new Student("Grace Hopper", "S003", "Mathematics", 60.0));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(10, TimeUnit.SECONDS);
+
+        repository.releaseScan.countDown();
+        assertEquals(2, loaded.get(10, TimeUnit.SECONDS));
+    }
+
+    // Holds the next full scan after it has read its first student
+    private static class BlockingRepository extends InMemoryStudentRepository {
+        private final CountDownLatch scanStarted = new CountDownLatch(1);
+        private final CountDownLatch releaseScan = new CountDownLatch(1);
+        private volatile boolean blockNextScan;
+
+        void blockNextScan() {
+            blockNextScan = true;
+        }
+
+        @Override
+        public int forEachStudent(Consumer<Student> consumer) {
+            if (!blockNextScan) {
+                return super.forEachStudent(consumer);
+            }
+            blockNextScan = false;
+            boolean[] held = new boolean[1];
+            return super.forEachStudent(student -> {
+                consumer.accept(student);
+                if (!held[0]) {
+                    held[0] = true;
+                    scanStarted.countDown();
+                    try {
+                        releaseScan.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+    }
+}
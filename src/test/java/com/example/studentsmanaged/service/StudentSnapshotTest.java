@@ -0,0 +1,98 @@
+package com.example.studentsmanaged.service;
+
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StudentSnapshotTest {
+    @Test
+    void appliedChangesMatchAFullCopyAcrossFolds() {
+        NavigableMap<String, Student> expected = new TreeMap<>();
+        List<Student> initial = new ArrayList<>();
+        for (int i = 0; i < 2_000; i += 2) {
+            Student student = student(i, 50.0);
+            initial.add(student);
+            expected.put(student.getId(), student);
+        }
+
+        StudentSnapshot snapshot = StudentSnapshot.of(initial);
+        Random random = new Random(11);
+        // Enough groups that the overlay is folded into the base several times
+        for (int group = 0; group < 300; group++) {
+            List<StudentChangeEvent> events = new ArrayList<>();
+            int groupSize = 1 + random.nextInt(8);
+            for (int j = 0; j < groupSize; j++) {
+                int id = random.nextInt(2_000);
+                if (random.nextInt(3) == 0) {
+                    events.add(StudentChangeEvent.deleted(student(id, 0).getId()));
+                    expected.remove(student(id, 0).getId());
+                } else {
+                    Student student = student(id, random.nextInt(10_000) / 100.0);
+                    events.add(random.nextBoolean() ? StudentChangeEvent.inserted(student)
+                            : StudentChangeEvent.updated(student));
+                    expected.put(student.getId(), student);
+                }
+            }
+
+            StudentSnapshot previous = snapshot;
+            int previousSize = previous.size();
+            List<Student> previousStudents = previous.getStudents();
+            snapshot = snapshot.apply(events);
+
+            assertEquals(previous.getVersion() + 1, snapshot.getVersion());
+            assertEquals(previousSize, previous.size());
+            assertEquals(describe(previousStudents), describe(previous.getStudents()));
+            assertMatches(expected, snapshot);
+        }
+    }
+
+    @Test
+    void deletedAndReinsertedIdsAreTrackedWithinOneGroup() {
+        StudentSnapshot snapshot = StudentSnapshot.of(List.of(student(1, 60.0), student(2, 70.0)));
+
+        snapshot = snapshot.apply(List.of(
+                StudentChangeEvent.deleted(student(1, 0).getId()),
+                StudentChangeEvent.inserted(student(1, 80.0)),
+                StudentChangeEvent.deleted(student(2, 0).getId()),
+                StudentChangeEvent.deleted(student(3, 0).getId()),
+                StudentChangeEvent.inserted(student(4, 90.0))));
+
+        assertEquals(2, snapshot.size());
+        assertEquals(80.0, snapshot.get(student(1, 0).getId()).getGrade());
+        assertFalse(snapshot.contains(student(2, 0).getId()));
+        assertNull(snapshot.get(student(3, 0).getId()));
+        assertTrue(snapshot.contains(student(4, 0).getId()));
+    }
+
+    private static void assertMatches(NavigableMap<String, Student> expected, StudentSnapshot snapshot) {
+        assertEquals(expected.size(), snapshot.size());
+        List<String> students = describe(expected.values());
+        assertEquals(students, describe(snapshot.getStudents()));
+        assertEquals(students, describe(snapshot.stream().collect(Collectors.toList())));
+        for (int i = 0; i < 2_000; i += 97) {
+            String id = student(i, 0).getId();
+            assertEquals(expected.containsKey(id), snapshot.contains(id), id);
+        }
+    }
+
+    // Students have no equals, and events copy them, so compare their text
+    private static List<String> describe(Collection<Student> students) {
+        return students.stream().map(Student::toString).collect(Collectors.toList());
+    }
+
+    private static Student student(int i, double grade) {
+        return new Student("Student " + i, String.format("S%04d", i), "Physics", grade);
+    }
+}
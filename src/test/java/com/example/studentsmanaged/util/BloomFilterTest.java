@@ -0,0 +1,73 @@
+package com.example.studentsmanaged.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+    @Test
+    void sizedFromExpectedInsertionsAndFalsePositiveRate() {
+        // m = -1000 ln 0.01 / (ln 2)^2 = 9586 bits, rounded up to whole words
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        assertEquals(9600, filter.getBitCount());
+        assertEquals(7, filter.getHashCount());
+
+        BloomFilter tiny = new BloomFilter(1, 0.5);
+        assertEquals(64, tiny.getBitCount());
+        assertTrue(tiny.getHashCount() >= 1);
+    }
+
+    @Test
+    void addedKeysAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("S" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("S" + i), "S" + i);
+        }
+        assertFalse(filter.isSaturated());
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("S" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("X" + i)) {
+                falsePositives++;
+            }
+        }
+        double observed = (double) falsePositives / probes;
+        assertTrue(observed < 0.02, "observed " + observed);
+        assertEquals(0.01, filter.getExpectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void repeatedKeysDoNotCountAsInsertions() {
+        BloomFilter filter = new BloomFilter(2, 0.01);
+        assertTrue(filter.put("S001"));
+        assertFalse(filter.put("S001"));
+        assertEquals(1, filter.getInsertions());
+
+        filter.put("S002");
+        assertFalse(filter.isSaturated());
+        filter.put("S003");
+        assertTrue(filter.isSaturated());
+    }
+
+    @Test
+    void rejectsInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.studentsmanaged.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvWriterTest {
+    @Test
+    void writeFixedMatchesStringFormatAtRoundingBoundaries() throws IOException {
+        List<Double> values = new ArrayList<>(List.of(0.0, -0.0, 100.0, -100.0, 0.005, -0.005, 0.004999,
+                0.995, 9.995, 99.995, 99.9951, 99.9949, 999.995, 1.005, 2.675, 1.115, 1e-9, -1e-9,
+                123456.785, 9_999_999.995, 1e15, 1e20, -1e20, Double.MIN_VALUE, Double.MAX_VALUE));
+        // Every x.xx5 grade, the values closest to a half at two decimals
+        for (int i = 0; i <= 10_000; i++) {
+            values.add(i / 100.0 + 0.005);
+            values.add(-(i / 100.0 + 0.005));
+        }
+        Random random = new Random(5);
+        for (int i = 0; i < 20_000; i++) {
+            values.add(random.nextDouble() * 200 - 100);
+            values.add(Math.round(random.nextDouble() * 1_000_000) / 1000.0);
+        }
+
+        for (int decimals = 0; decimals <= 4; decimals++) {
+            for (double value : values) {
+                assertEquals(String.format(Locale.ROOT, "%." + decimals + "f", value), fixed(value, decimals),
+                        "value " + value + " with " + decimals + " decimals");
+            }
+        }
+    }
+
+    @Test
+    void writeFixedKeepsSignOfNegativeZero() throws IOException {
+        assertEquals("-0.00", fixed(-0.0, 2));
+        assertEquals("-0.00", fixed(-0.001, 2));
+        assertEquals("0.00", fixed(0.0, 2));
+    }
+
+    @Test
+    void quotesOnlyFieldsThatNeedIt() throws IOException {
+        StringWriter out = new StringWriter();
+        try (CsvWriter csv = new CsvWriter(out, ',', "\n")) {
+            csv.writeField("plain");
+            csv.writeField("with,comma");
+            csv.writeField("say \"hi\"");
+            csv.writeField("two\nlines");
+            csv.writeField(null);
+            csv.writeField("semi;colon");
+            csv.endRecord();
+        }
+        assertEquals("plain,\"with,comma\",\"say \"\"hi\"\"\",\"two\nlines\",,semi;colon\n", out.toString());
+    }
+
+    @Test
+    void readerReadsBackWhatWriterWrote() throws IOException {
+        List<List<String>> records = List.of(
+                List.of("ID", "Name", "Course", "Grade"),
+                List.of("S001", "Lovelace, Ada", "Mathematics", "91.50"),
+                List.of("S002", "Alan \"The Enigma\" Turing", "\"Quoted\" Course", "88.00"),
+                List.of("S003", "First line\nSecond line", "Windows\r\nbreak", ""),
+                List.of("S004", "\"", "\"\"", ",,"),
+                List.of("", "  padded  ", "semi;colon", "tab\there"));
+
+        for (char delimiter : new char[]{',', ';', '\t'}) {
+            for (String lineSeparator : new String[]{"\n", "\r\n"}) {
+                StringWriter out = new StringWriter();
+                try (CsvWriter csv = new CsvWriter(out, delimiter, lineSeparator)) {
+                    for (List<String> record : records) {
+                        for (String field : record) {
+                            csv.writeField(field);
+                        }
+                        csv.endRecord();
+                    }
+                }
+
+                List<List<String>> read = new ArrayList<>();
+                try (CsvReader csv = new CsvReader(new StringReader(out.toString()), delimiter)) {
+                    while (csv.nextRecord()) {
+                        List<String> fields = new ArrayList<>();
+                        for (int i = 0; i < csv.getFieldCount(); i++) {
+                            fields.add(csv.getField(i));
+                        }
+                        read.add(fields);
+                    }
+                    assertFalse(csv.isIrregular());
+                }
+                assertEquals(records, read, "delimiter '" + delimiter + "' with " + lineSeparator.length()
+                        + "-character line breaks");
+            }
+        }
+    }
+
+    @Test
+    void writerFlushesRecordsLargerThanItsBuffer() throws IOException {
+        String large = "x".repeat(200_000) + ",\"" + "y".repeat(100_000);
+        StringWriter out = new StringWriter();
+        try (CsvWriter csv = new CsvWriter(out, ',', "\n")) {
+            csv.writeField(large);
+            csv.writeFixed(12.345, 2);
+            csv.endRecord();
+        }
+
+        try (CsvReader csv = new CsvReader(new StringReader(out.toString()), ',')) {
+            assertTrue(csv.nextRecord());
+            assertEquals(large, csv.getField(0));
+            assertEquals(12.35, csv.getDouble(1));
+            assertFalse(csv.nextRecord());
+        }
+    }
+
+    private static String fixed(double value, int decimals) throws IOException {
+        StringWriter out = new StringWriter();
+        try (CsvWriter csv = new CsvWriter(out, ',', "")) {
+            csv.writeFixed(value, decimals);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.studentsmanaged.util;
+
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileHandlerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void exportedFileImportsBackUnchanged() {
+        List<Student> students = List.of(
+                new Student("Lovelace, Ada", "S001", "Mathematics", 91.5),
+                new Student("Alan \"Enigma\" Turing", "S002", "Computer Science", 88.125),
+                new Student("Grace\nHopper", "S003", "Physics", 0.0));
+
+        for (String name : List.of("students.csv", "students.csv" + FileHandler.GZIP_SUFFIX)) {
+            String file = dir.resolve(name).toString();
+            assertTrue(FileHandler.exportToCSV(students, file));
+
+            List<String> errors = new ArrayList<>();
+            List<Student> read;
+            try (Stream<Student> rows = FileHandler.streamCSV(file, errors::add)) {
+                read = rows.collect(Collectors.toList());
+            }
+
+            assertTrue(errors.isEmpty(), errors.toString());
+            assertEquals(students.size(), read.size(), name);
+            for (int i = 0; i < students.size(); i++) {
+                assertEquals(students.get(i).getId(), read.get(i).getId());
+                assertEquals(students.get(i).getName(), read.get(i).getName());
+                assertEquals(students.get(i).getCourse(), read.get(i).getCourse());
+                // Grades are exported with two decimals
+                assertEquals(Math.round(students.get(i).getGrade() * 100) / 100.0, read.get(i).getGrade(), name);
+            }
+        }
+    }
+}
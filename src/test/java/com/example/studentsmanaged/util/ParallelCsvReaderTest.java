@@ -0,0 +1,58 @@
+package com.example.studentsmanaged.util;
+
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelCsvReaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void malformedRowsReachTheSinkInFileOrderLikeTheSequentialReader() throws Exception {
+        Path file = dir.resolve("students.csv");
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("ID,Name,Course,Grade\n");
+            for (int i = 0; i < 3_000; i++) {
+                if (i % 97 == 0) {
+                    out.write("S" + i + ",Missing Grade,Physics\n");
+                } else if (i % 89 == 0) {
+                    out.write("S" + i + ",Bad Grade,Physics,high\n");
+                } else {
+                    // Quoted fields with delimiters and line breaks straddle some range boundaries
+                    out.write("S" + i + ",\"Name, with\ncomma\",Physics," + (i % 100) + "\n");
+                }
+            }
+        }
+
+        List<String> expectedErrors = new ArrayList<>();
+        List<String> expectedIds = new ArrayList<>();
+        try (Stream<Student> students = FileHandler.streamCSV(file.toString(), ',', expectedErrors::add)) {
+            students.forEach(student -> expectedIds.add(student.getId()));
+        }
+
+        List<String> errors = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        new ParallelCsvReader(file, ',', 4, 1024).read(students -> {
+            for (Student student : students) {
+                ids.add(student.getId());
+            }
+        }, errors::add);
+
+        assertEquals(expectedIds, ids);
+        assertEquals(expectedErrors, errors);
+        assertEquals(64, errors.size());
+        assertTrue(errors.get(0).contains("line 2"), errors.get(0));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.studentsmanaged.util;
+
+import com.example.studentsmanaged.models.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            students.add(new Student("Student " + i, String.format("S%05d", i),
+                    i % 7 == 0 ? null : "Course " + (i % 13), i % 1000 / 10.0));
+        }
+
+        for (boolean compress : new boolean[]{false, true}) {
+            Path file = dir.resolve("backup-" + compress + ".sms");
+            assertEquals(students.size(), SnapshotFile.write(students.stream(), file, compress));
+
+            List<Student> read = new ArrayList<>();
+            assertEquals(students.size(), SnapshotFile.read(file, read::addAll));
+            for (int i = 0; i < students.size(); i++) {
+                assertEquals(students.get(i).getId(), read.get(i).getId());
+                assertEquals(students.get(i).getName(), read.get(i).getName());
+                assertEquals(students.get(i).getCourse(), read.get(i).getCourse());
+                assertEquals(students.get(i).getGrade(), read.get(i).getGrade());
+            }
+        }
+    }
+
+    @Test
+    void stringLongerThanItsBlockIsCorrupt() throws IOException {
+        // The first block leaves a larger read buffer behind, so an overlong string in the
+        // second block would otherwise decode leftover bytes instead of failing
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        file.writeBytes(ByteBuffer.allocate(8).putInt(0x534D5342).putShort((short) 1).put((byte) 0).put((byte) 0)
+                .array());
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        first.write(1);
+        putString(first, "Physics");
+        first.write(1);
+        putString(first, "S0001");
+        putString(first, "x".repeat(100));
+        first.write(1);
+        first.writeBytes(ByteBuffer.allocate(8).putDouble(75.0).array());
+        putBlock(file, first.toByteArray());
+
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        second.write(0);
+        second.write(1);
+        // Claims 40 bytes of ID where the block has far fewer
+        second.write(41);
+        second.writeBytes("S0002".getBytes(StandardCharsets.UTF_8));
+        putBlock(file, second.toByteArray());
+
+        file.write(0);
+        file.writeBytes(ByteBuffer.allocate(8).putLong(2).array());
+        Path path = dir.resolve("corrupt.sms");
+        Files.write(path, file.toByteArray());
+
+        List<Student> read = new ArrayList<>();
+        IOException e = assertThrows(IOException.class, () -> SnapshotFile.read(path, read::addAll));
+        assertTrue(e.getMessage().startsWith("Corrupt snapshot"), e.getMessage());
+        // The first block was intact and was delivered before the bad one
+        assertEquals(1, read.size());
+    }
+
+    private static void putString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // Every test string is short enough for a one-byte varint
+        out.write(bytes.length + 1);
+        out.writeBytes(bytes);
+    }
+
+    private static void putBlock(ByteArrayOutputStream out, byte[] raw) {
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        out.writeBytes(ByteBuffer.allocate(13).put((byte) 1).putInt(raw.length).putInt(raw.length)
+                .putInt((int) crc.getValue()).array());
+        out.writeBytes(raw);
+    }
+}